@@ -0,0 +1,91 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
+import io.github.ericmedvet.mrsim2d.core.NumMultiBrained;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// measures the brain side of one control step, i.e., one step of every brain of the agent, on random inputs
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerBenchmark {
+
+  @Param({"centralized", "distributed"})
+  public String controller;
+
+  @Param({"ds.num.mlp()", "er.ds.num.sharedMlp()"})
+  public String function;
+
+  @Param({"4", "6", "8", "10"})
+  public int size;
+
+  @Param({"2", "5"})
+  public int nOfSensors;
+
+  private List<? extends NumericalDynamicalSystem<?>> brains;
+  private double[][] inputs;
+  private double t;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    String description =
+        switch (controller) {
+          case "centralized" -> Descriptions.centralizedVsr(size, nOfSensors, function);
+          case "distributed" -> Descriptions.distributedVsr(size, nOfSensors, function);
+          default -> throw new IllegalArgumentException("Unknown controller: %s".formatted(controller));
+        };
+    NumMultiBrained agent = (NumMultiBrained) Descriptions.NB.build(description);
+    Random random = new Random(1);
+    brains = agent.brains();
+    brains.forEach(b -> Descriptions.randomize(b, random));
+    inputs = brains.stream()
+        .map(b -> random.doubles(b.nOfInputs(), -1d, 1d).toArray())
+        .toArray(double[][]::new);
+  }
+
+  @Benchmark
+  public void step(Blackhole blackhole) {
+    t = t + 0.1;
+    for (int i = 0; i < inputs.length; i = i + 1) {
+      blackhole.consume(brains.get(i).step(t, inputs[i]));
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.jgea.core.representation.sequence.integer.IntString;
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.jnb.datastructure.NumericalParametrized;
+import io.github.ericmedvet.jsdynsym.core.composed.Composed;
+import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+public class Descriptions {
+
+  public static final NamedBuilder<Object> NB = NamedBuilder.fromDiscovery();
+
+  private static final List<String> SENSORS =
+      List.of("s.s.a()", "s.s.ar()", "s.s.rv(a = 0)", "s.s.rv(a = 90)", "s.s.d(a = -90)");
+  private static final String AVAILABLE_VOXELS =
+      """
+      [
+        s.supplier(of = s.a.vsr.rv.aa());
+        s.supplier(of = s.a.vsr.rv.asin());
+        s.supplier(of = s.a.vsr.rv.asld());
+        s.supplier(of = s.a.vsr.rv.at());
+        s.supplier(of = s.a.vsr.rv.ph());
+        s.supplier(of = s.a.vsr.rv.ps())
+      ]""";
+
+  private Descriptions() {}
+
+  public static String body(int size, int nOfSensors) {
+    return "s.a.vsr.gridBody(sensorizingFunction = s.a.vsr.sf.uniform(sensors = %s); shape = s.a.vsr.s.biped(w = %d; h = %d))"
+        .formatted(sensors(nOfSensors), size, size);
+  }
+
+  public static String centralizedVsr(int size, int nOfSensors) {
+    return centralizedVsr(size, nOfSensors, "ds.num.mlp()");
+  }
+
+  public static String centralizedVsr(int size, int nOfSensors, String function) {
+    return "s.a.centralizedNumGridVSR(body = %s; function = %s)".formatted(body(size, nOfSensors), function);
+  }
+
+  public static String distributedVsr(int size, int nOfSensors) {
+    return distributedVsr(size, nOfSensors, "ds.num.mlp()");
+  }
+
+  public static String distributedVsr(int size, int nOfSensors, String function) {
+    return "s.a.distributedNumGridVSR(body = %s; function = %s; signals = 1)"
+        .formatted(body(size, nOfSensors), function);
+  }
+
+  public static String mapper(String name, int size, int nOfSensors, boolean cached) {
+    String noBodyCache = cached ? "" : "bodyCacheSize = 0; ";
+    String noCaches = cached ? "" : "bodyCacheSize = 0; genotypeCacheSize = 0; ";
+    return switch (name) {
+      case "bodyBrainHomoDistributedVSR" -> ("er.m.bodyBrainHomoDistributedVSR(%sw = %d; h = %d; sensors = %s; of = "
+              + "ea.m.pair(of = ea.m.dsSplit(); ofFirst = ea.m.dsToFixedGrid(negItem = s.a.vsr.voxel(type = none); "
+              + "posItem = s.a.vsr.voxel(type = soft)); ofSecond = ea.m.dsToNpnds(npnds = ds.num.mlp())))")
+          .formatted(noBodyCache, size, size, sensors(nOfSensors));
+      case "dsToNpHeteroBrains" -> "er.m.dsToNpHeteroBrains(target = %s)".formatted(distributedVsr(size, nOfSensors));
+      case "dsToNpHomoBrains" -> "er.m.dsToNpHomoBrains(target = %s)".formatted(centralizedVsr(size, nOfSensors));
+      case "isToReactiveGridVsr" -> "er.m.isToReactiveGridVsr(%sw = %d; h = %d; availableVoxels = %s)"
+          .formatted(noBodyCache, size, size, AVAILABLE_VOXELS);
+      case "ndsToFixedBodyCentralizedVSR" -> "er.m.ndsToFixedBodyCentralizedVSR(body = %s; of = ea.m.dsToNpnds(npnds = ds.num.mlp()))"
+          .formatted(body(size, nOfSensors));
+      case "ndsToFixedBodyHomoDistributedVSR" -> "er.m.ndsToFixedBodyHomoDistributedVSR(body = %s; of = ea.m.dsToNpnds(npnds = ds.num.mlp()))"
+          .formatted(body(size, nOfSensors));
+      case "nmrfToReactiveGridVsr" -> ("er.m.nmrfToReactiveGridVsr(%sw = %d; h = %d; availableVoxels = %s; of = "
+              + "ea.m.ntissToNmrf(of = ea.m.dsToNpnds(npnds = ds.num.mlp())))")
+          .formatted(noCaches, size, size, AVAILABLE_VOXELS);
+      default -> throw new IllegalArgumentException("Unknown mapper: %s".formatted(name));
+    };
+  }
+
+  public static Object randomGenotype(Object example, RandomGenerator randomGenerator) {
+    if (example instanceof IntString intString) {
+      return new IntString(
+          intString.genes().stream()
+              .map(g -> randomGenerator.nextInt(intString.lowerBound(), intString.upperBound()))
+              .toList(),
+          intString.lowerBound(),
+          intString.upperBound());
+    }
+    if (example instanceof List<?> list) {
+      return list.stream().map(v -> randomGenerator.nextDouble(-1d, 1d)).toList();
+    }
+    throw new IllegalArgumentException(
+        "Unsupported genotype type: %s".formatted(example.getClass().getSimpleName()));
+  }
+
+  @SuppressWarnings("unchecked")
+  public static void randomize(NumericalDynamicalSystem<?> nds, RandomGenerator randomGenerator) {
+    Composed.shallowest(nds, NumericalParametrized.class).ifPresent(np -> np.setParams(randomGenerator
+        .doubles(np.getParams().length, -1d, 1d)
+        .toArray()));
+  }
+
+  public static String sensors(int nOfSensors) {
+    if (nOfSensors < 1 || nOfSensors > SENSORS.size()) {
+      throw new IllegalArgumentException(
+          "Wrong number of sensors: %d not in [1,%d]".formatted(nOfSensors, SENSORS.size()));
+    }
+    return SENSORS.subList(0, nOfSensors).stream().collect(Collectors.joining("; ", "[", "]"));
+  }
+}
@@ -0,0 +1,109 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems;
+import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
+import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.IOSaver;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// each iteration is a batch of steps on a fresh file, so that the written files do not grow unbounded
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = IOSaverBenchmark.N_OF_STEPS)
+@Measurement(iterations = 20, batchSize = IOSaverBenchmark.N_OF_STEPS)
+@Fork(1)
+public class IOSaverBenchmark {
+
+  public static final int N_OF_STEPS = 10000;
+  private static final double DT = 0.1d;
+  private static final double FINAL_T = 2d * N_OF_STEPS * DT;
+
+  @Param({"off", "csv", "csvAsync", "float64", "summary"})
+  public String logging;
+
+  @Param({"4", "10"})
+  public int size;
+
+  @Param({"2", "5"})
+  public int nOfSensors;
+
+  private NumericalDynamicalSystem<?> nds;
+  private double[] input;
+  private double t;
+  private Path filePath;
+
+  @Setup(Level.Iteration)
+  @SuppressWarnings("unchecked")
+  public void setup() throws IOException {
+    filePath = Files.createTempFile("io-saver-bench", ".txt");
+    String settings =
+        switch (logging) {
+          case "off" -> "initT = %s".formatted(2d * FINAL_T);
+          case "csv" -> "format = csv";
+          case "csvAsync" -> "format = csv; async = true";
+          case "float64" -> "format = float64";
+          case "summary" -> "summarize = true";
+          default -> throw new IllegalArgumentException("Unknown logging: %s".formatted(logging));
+        };
+    int nOfInputs = nOfSensors * size;
+    nds = ((NumericalDynamicalSystems.Builder<? extends NumericalDynamicalSystem<?>, ?>) Descriptions.NB.build(
+            "er.ds.num.ioSaver(inner = ds.num.mlp(); filePath = \"%s\"; finalT = %s; %s)"
+                .formatted(filePath, FINAL_T, settings)))
+        .apply(nOfInputs, size);
+    Random random = new Random(1);
+    Descriptions.randomize(nds, random);
+    input = random.doubles(nOfInputs, -1d, 1d).toArray();
+    t = 0;
+  }
+
+  @Benchmark
+  public double[] step() {
+    t = t + DT;
+    return nds.step(t, input);
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() throws IOException {
+    // reaching the final time closes the (possibly async) writers
+    nds.step(FINAL_T, input);
+    Files.deleteIfExists(filePath);
+    Files.deleteIfExists(Path.of(filePath + IOSaver.SAMPLES_SUFFIX));
+  }
+}
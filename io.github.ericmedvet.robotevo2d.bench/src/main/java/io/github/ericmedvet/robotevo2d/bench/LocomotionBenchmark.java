@@ -0,0 +1,92 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.NumMultiBrained;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LocomotionBenchmark {
+
+  @Param({"centralized", "distributed"})
+  public String controller;
+
+  @Param({"4", "6", "8", "10"})
+  public int size;
+
+  @Param({"2", "5"})
+  public int nOfSensors;
+
+  @Param({"5"})
+  public double duration;
+
+  private Task<Supplier<EmbodiedAgent>, ?, ?> task;
+  private Supplier<Engine> engineSupplier;
+  private Supplier<EmbodiedAgent> agentSupplier;
+
+  @Benchmark
+  public Object run() {
+    return task.run(agentSupplier, engineSupplier.get(), snapshot -> {});
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    task = (Task<Supplier<EmbodiedAgent>, ?, ?>)
+        Descriptions.NB.build("s.task.locomotion(duration = %s)".formatted(duration));
+    engineSupplier = (Supplier<Engine>) Descriptions.NB.build("sim.engine()");
+    String description =
+        switch (controller) {
+          case "centralized" -> Descriptions.centralizedVsr(size, nOfSensors);
+          case "distributed" -> Descriptions.distributedVsr(size, nOfSensors);
+          default -> throw new IllegalArgumentException("Unknown controller: %s".formatted(controller));
+        };
+    agentSupplier = () -> {
+      EmbodiedAgent agent = (EmbodiedAgent) Descriptions.NB.build(description);
+      // same weights at every run, for comparable simulations
+      Random random = new Random(1);
+      ((NumMultiBrained) agent).brains().forEach(b -> Descriptions.randomize(b, random));
+      return agent;
+    };
+  }
+}
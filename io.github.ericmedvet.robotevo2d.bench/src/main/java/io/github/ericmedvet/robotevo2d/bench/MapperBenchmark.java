@@ -0,0 +1,110 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.jgea.core.InvertibleMapper;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+  @Param({
+    "bodyBrainHomoDistributedVSR",
+    "dsToNpHeteroBrains",
+    "dsToNpHomoBrains",
+    "isToReactiveGridVsr",
+    "ndsToFixedBodyCentralizedVSR",
+    "ndsToFixedBodyHomoDistributedVSR",
+    "nmrfToReactiveGridVsr"
+  })
+  public String mapperName;
+
+  @Param({"4", "6", "8", "10"})
+  public int size;
+
+  @Param({"2", "5"})
+  public int nOfSensors;
+
+  // if false, the body and genotype caches of the mappers which have them are disabled
+  @Param({"false", "true"})
+  public boolean cached;
+
+  private static final int N_OF_GENOTYPES = 64;
+
+  private InvertibleMapper<Object, Supplier<?>> mapper;
+  private Object[] genotypes;
+  private Supplier<?>[] suppliers;
+  private int index;
+
+  @Benchmark
+  public Object build() {
+    return suppliers[next()].get();
+  }
+
+  @Benchmark
+  public Supplier<?> map() {
+    return mapper.mapperFor(null).apply(genotypes[next()]);
+  }
+
+  @Benchmark
+  public Object mapAndBuild() {
+    return mapper.mapperFor(null).apply(genotypes[next()]).get();
+  }
+
+  // genotypes are rotated, so that caches, when enabled, hit on a realistic number of different entries
+  private int next() {
+    index = (index + 1) % N_OF_GENOTYPES;
+    return index;
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    mapper = (InvertibleMapper<Object, Supplier<?>>)
+        Descriptions.NB.build(Descriptions.mapper(mapperName, size, nOfSensors, cached));
+    Random random = new Random(1);
+    genotypes = new Object[N_OF_GENOTYPES];
+    suppliers = new Supplier<?>[N_OF_GENOTYPES];
+    for (int i = 0; i < N_OF_GENOTYPES; i = i + 1) {
+      genotypes[i] = Descriptions.randomGenotype(mapper.exampleFor(null), random);
+      suppliers[i] = mapper.mapperFor(null).apply(genotypes[i]);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems;
+import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
+import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.SharedWeightsMLP;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// compares the stock MLP with er.ds.num.sharedMlp() on the vector and on the scalar kernel; each combination of
+// params runs in its own fork, hence the kernel can be chosen before SharedWeightsMLP is initialized; the vector
+// kernel needs the main module built with -Pvector
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(
+    value = 1,
+    jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class MlpBenchmark {
+
+  @Param({"ds.num.mlp()", "er.ds.num.sharedMlp()"})
+  public String function;
+
+  @Param({"vector", "scalar"})
+  public String kernel;
+
+  @Param({"10", "100", "500"})
+  public int nOfInputs;
+
+  @Param({"2", "8"})
+  public int nOfOutputs;
+
+  private NumericalDynamicalSystem<?> nds;
+  private double[] input;
+  private double t;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    System.setProperty(SharedWeightsMLP.VECTOR_DISABLING_PROPERTY_NAME, Boolean.toString(kernel.equals("scalar")));
+    nds = ((NumericalDynamicalSystems.Builder<?, ?>) Descriptions.NB.build(function)).apply(nOfInputs, nOfOutputs);
+    // the vector kernel is there only if the main module has been built with -Pvector
+    if (!SharedWeightsMLP.kernelName().startsWith(kernel)) {
+      throw new IllegalStateException(
+          "Kernel %s not available, %s used instead".formatted(kernel, SharedWeightsMLP.kernelName()));
+    }
+    Random random = new Random(1);
+    Descriptions.randomize(nds, random);
+    input = random.doubles(nOfInputs, -1d, 1d).toArray();
+  }
+
+  @Benchmark
+  public double[] step() {
+    t = t + 0.1;
+    return nds.step(t, input);
+  }
+}
@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import io.github.ericmedvet.jgea.core.representation.NamedMultivariateRealFunction;
+import io.github.ericmedvet.jgea.core.representation.tree.numeric.TreeBasedMultivariateRealFunction;
+import io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems;
+import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.CentralizedNumGridVSR;
+import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody;
+import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.TreeCompiler;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// evaluates the sample graph/tree of er.ds.num.oGraphMRF()/treeMRF(), possibly compiled, with the I/O sizes of a
+// centralized VSR
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MrfBenchmark {
+
+  @Param({"oGraphMRF", "treeMRF", "compiledTreeMRF"})
+  public String mrf;
+
+  @Param({"4", "6", "8", "10"})
+  public int size;
+
+  @Param({"2", "5"})
+  public int nOfSensors;
+
+  private NamedMultivariateRealFunction function;
+  private double[] input;
+
+  @Benchmark
+  public double[] apply() {
+    return function.apply(input);
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    GridBody body = (GridBody) Descriptions.NB.build(Descriptions.body(size, nOfSensors));
+    int nOfInputs = CentralizedNumGridVSR.nOfInputs(body);
+    function = ((NumericalDynamicalSystems.Builder<NamedMultivariateRealFunction, ?>)
+            Descriptions.NB.build("er.ds.num.%s()".formatted(mrf.equals("compiledTreeMRF") ? "treeMRF" : mrf)))
+        .apply(nOfInputs, CentralizedNumGridVSR.nOfOutputs(body));
+    if (mrf.equals("compiledTreeMRF")) {
+      function = TreeCompiler.compile(
+          TreeBasedMultivariateRealFunction.sampleFor(function.xVarNames(), function.yVarNames()),
+          function.xVarNames(),
+          function.yVarNames(),
+          v -> v);
+    }
+    input = new Random(1).doubles(nOfInputs, -1d, 1d).toArray();
+  }
+}
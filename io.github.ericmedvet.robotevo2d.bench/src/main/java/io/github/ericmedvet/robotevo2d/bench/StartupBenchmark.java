@@ -0,0 +1,98 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-bench
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+// not a JMH benchmark: it measures the wall time of whole Player processes, hence including JVM startup
+public class StartupBenchmark {
+
+  private static final String PLAYER_CLASS_NAME = "io.github.ericmedvet.robotevo2d.main.Player";
+  private static final String INDEX_DISABLING_OPTION = "-Drobotevo2d.builderIndex.disabled=true";
+
+  private record Setup(String name, List<String> jvmOptions) {}
+
+  private StartupBenchmark() {}
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 2) {
+      System.err.printf(
+          "Usage: %s <main jar-with-dependencies> <play file> [n of repetitions] [cds archive]%n",
+          StartupBenchmark.class.getName());
+      System.exit(-1);
+    }
+    String jarPath = args[0];
+    String playFilePath = args[1];
+    int nOfRepetitions = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+    List<Setup> setups = new ArrayList<>();
+    setups.add(new Setup("discovery", List.of(INDEX_DISABLING_OPTION)));
+    setups.add(new Setup("index", List.of()));
+    if (args.length > 3 && Files.exists(Path.of(args[3]))) {
+      setups.add(new Setup("discovery+cds", List.of(INDEX_DISABLING_OPTION, "-XX:SharedArchiveFile=" + args[3])));
+      setups.add(new Setup("index+cds", List.of("-XX:SharedArchiveFile=" + args[3])));
+    }
+    String javaPath = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    System.out.printf("%-15s %10s %10s %10s%n", "setup", "min[ms]", "median[ms]", "mean[ms]");
+    for (Setup setup : setups) {
+      List<String> command = Stream.of(
+              Stream.of(javaPath, "-Djava.awt.headless=true"),
+              setup.jvmOptions().stream(),
+              Stream.of("-cp", jarPath, PLAYER_CLASS_NAME, "--playFile", playFilePath, "--justOutput"))
+          .flatMap(s -> s)
+          .toList();
+      // the first run is not measured, to warm up the file system cache
+      run(command);
+      double[] millis = new double[nOfRepetitions];
+      for (int i = 0; i < nOfRepetitions; i = i + 1) {
+        millis[i] = run(command);
+      }
+      Arrays.sort(millis);
+      System.out.printf(
+          Locale.ROOT,
+          "%-15s %10.1f %10.1f %10.1f%n",
+          setup.name(),
+          millis[0],
+          millis[millis.length / 2],
+          Arrays.stream(millis).average().orElse(Double.NaN));
+    }
+  }
+
+  private static double run(List<String> command) throws IOException, InterruptedException {
+    long startingNanos = System.nanoTime();
+    Process process = new ProcessBuilder(command)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    int exitValue = process.waitFor();
+    double millis = (System.nanoTime() - startingNanos) / 1e6;
+    if (exitValue != 0) {
+      throw new IllegalStateException("Process exited with %d: %s".formatted(exitValue, command));
+    }
+    return millis;
+  }
+}
@@ -0,0 +1,152 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.robotevo2d.main.util.KeyedSupplier;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+public class PlayBenchmark {
+
+  private static final Logger L = Logger.getLogger(PlayBenchmark.class.getName());
+  private static final double[] PERCENTILES = new double[] {5, 50, 95};
+
+  private PlayBenchmark() {}
+
+  public record Measure(
+      double wallTime, double simulatedTime, long nOfSteps, double buildTime, long allocatedBytes) {}
+
+  private static class StepCounter implements Consumer<Snapshot> {
+    private long nOfSteps;
+    private double lastT;
+
+    @Override
+    public void accept(Snapshot snapshot) {
+      nOfSteps = nOfSteps + 1;
+      lastT = snapshot.t();
+    }
+  }
+
+  private static long allocatedBytes() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean
+        && threadMXBean.isThreadAllocatedMemorySupported()) {
+      return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+    return -1;
+  }
+
+  public static List<Measure> measure(
+      Play<Object, Object, AgentsObservation, AgentsOutcome<AgentsObservation>> play,
+      int nOfWarmups,
+      int nOfRepetitions) {
+    Object genotype = play.genotype().apply(play.mapper().exampleFor(null));
+    List<Measure> measures = new ArrayList<>(nOfRepetitions);
+    for (int i = 0; i < nOfWarmups + nOfRepetitions; i++) {
+      if (i < nOfWarmups) {
+        L.fine("Warmup repetition %d/%d".formatted(i + 1, nOfWarmups));
+      } else {
+        L.fine("Measured repetition %d/%d".formatted(i + 1 - nOfWarmups, nOfRepetitions));
+      }
+      long startingAllocatedBytes = allocatedBytes();
+      long buildStartNanos = System.nanoTime();
+      Object solution = play.mapper().mapperFor(null).apply(genotype);
+      long[] buildNanos = new long[] {System.nanoTime() - buildStartNanos};
+      if (solution instanceof Supplier<?> supplier) {
+        // the agent is actually built by the supplier, within the task: the build of that agent is timed there
+        Supplier<?> timedSupplier = () -> {
+          long getStartNanos = System.nanoTime();
+          Object agent = supplier.get();
+          buildNanos[0] = buildNanos[0] + System.nanoTime() - getStartNanos;
+          return agent;
+        };
+        solution = supplier instanceof KeyedSupplier<?> keyedSupplier
+            ? new KeyedSupplier<>(keyedSupplier.key(), timedSupplier)
+            : timedSupplier;
+      }
+      StepCounter stepCounter = new StepCounter();
+      long runStartNanos = System.nanoTime();
+      long buildNanosBeforeRun = buildNanos[0];
+      play.task().run(solution, play.engineSupplier().get(), stepCounter);
+      double buildTime = buildNanos[0] / 1e9;
+      double wallTime = (System.nanoTime() - runStartNanos - (buildNanos[0] - buildNanosBeforeRun)) / 1e9;
+      long endingAllocatedBytes = allocatedBytes();
+      if (i >= nOfWarmups) {
+        measures.add(new Measure(
+            wallTime,
+            stepCounter.lastT,
+            stepCounter.nOfSteps,
+            buildTime,
+            startingAllocatedBytes < 0 ? -1 : endingAllocatedBytes - startingAllocatedBytes));
+      }
+    }
+    return measures;
+  }
+
+  private static double percentile(double[] sortedValues, double p) {
+    if (sortedValues.length == 0) {
+      return Double.NaN;
+    }
+    double rank = p / 100d * (sortedValues.length - 1);
+    int lower = (int) Math.floor(rank);
+    int upper = (int) Math.ceil(rank);
+    return sortedValues[lower] + (rank - lower) * (sortedValues[upper] - sortedValues[lower]);
+  }
+
+  public static void print(List<Measure> measures, PrintStream ps) {
+    Map<String, double[]> metrics = new LinkedHashMap<>();
+    metrics.put(
+        "wall.time[s]", measures.stream().mapToDouble(Measure::wallTime).toArray());
+    metrics.put(
+        "sim.time/wall.time",
+        measures.stream().mapToDouble(m -> m.simulatedTime() / m.wallTime()).toArray());
+    metrics.put(
+        "steps/s",
+        measures.stream().mapToDouble(m -> m.nOfSteps() / m.wallTime()).toArray());
+    metrics.put(
+        "build.time[ms]",
+        measures.stream().mapToDouble(m -> m.buildTime() * 1000d).toArray());
+    if (measures.stream().allMatch(m -> m.allocatedBytes() >= 0)) {
+      metrics.put(
+          "allocated[MB]",
+          measures.stream().mapToDouble(m -> m.allocatedBytes() / 1e6).toArray());
+    }
+    ps.printf("%-20s %12s", "metric (n=%d)".formatted(measures.size()), "mean");
+    Arrays.stream(PERCENTILES).forEach(p -> ps.printf(" %12s", "p%02.0f".formatted(p)));
+    ps.println();
+    metrics.forEach((name, values) -> {
+      double[] sortedValues = Arrays.stream(values).sorted().toArray();
+      ps.printf("%-20s %12.3f", name, Arrays.stream(values).average().orElse(Double.NaN));
+      Arrays.stream(PERCENTILES).forEach(p -> ps.printf(" %12.3f", percentile(sortedValues, p)));
+      ps.println();
+    });
+  }
+}
@@ -31,16 +31,35 @@ import io.github.ericmedvet.jnb.datastructure.NamedFunction;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
 import io.github.ericmedvet.robotevo2d.main.builders.PlayConsumers;
+import io.github.ericmedvet.robotevo2d.main.util.BuilderIndex;
 import java.io.BufferedReader;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
 
 public class Player {
 
@@ -61,6 +80,37 @@ public class Player {
         description = "Path of the file with the play description.")
     public String playDescriptionFilePath = "";
 
+    @Parameter(
+        names = {"--batch", "-b"},
+        description =
+            "Comma-separated paths of files with play or play batch descriptions, or of directories containing them.")
+    public List<String> batchFilePaths = List.of();
+
+    @Parameter(
+        names = {"--nOfThreads", "-nt"},
+        description = "Number of threads used for executing plays in batch mode.")
+    public int nOfThreads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(
+        names = {"--outputFile", "-o"},
+        description = "Path of the CSV file where outcomes are written in batch mode; standard output if empty.")
+    public String outputFilePath = "";
+
+    @Parameter(
+        names = {"--benchmark", "-bm"},
+        description = "Measure the speed of the play, without consumers, instead of executing it once.")
+    public boolean benchmark = false;
+
+    @Parameter(
+        names = {"--nOfWarmups", "-nw"},
+        description = "Number of unmeasured repetitions of the play in benchmark mode.")
+    public int nOfWarmups = 3;
+
+    @Parameter(
+        names = {"--nOfRepetitions", "-nr"},
+        description = "Number of measured repetitions of the play in benchmark mode.")
+    public int nOfRepetitions = 10;
+
     @Parameter(
         names = {"--help", "-h"},
         description = "Show this help.",
@@ -83,6 +133,109 @@ public class Player {
     public boolean justOutput = false;
   }
 
+  private record Outcome(int index, Play<?, ?, ?, ?> play, Map<String, String> values) {}
+
+  @SuppressWarnings("unchecked")
+  private static Outcome execute(int index, Play<?, ?, ?, ?> rawPlay) {
+    Play<Object, Object, AgentsObservation, AgentsOutcome<AgentsObservation>> play =
+        (Play<Object, Object, AgentsObservation, AgentsOutcome<AgentsObservation>>) rawPlay;
+    Object genotype = play.genotype().apply(play.mapper().exampleFor(null));
+    Object solution = play.mapper().mapperFor(null).apply(genotype);
+    PlayConsumers.ProducingConsumer consumer = play.consumers().stream()
+        .reduce(PlayConsumers.ProducingConsumer::andThen)
+        .orElse(PlayConsumers.ProducingConsumer.from(s -> {}, () -> {}));
+    // one engine per play, since engines are not thread-safe
+    AgentsOutcome<AgentsObservation> outcome =
+        play.task().run(solution, play.engineSupplier().get(), consumer);
+    consumer.run();
+    //noinspection rawtypes
+    return new Outcome(
+        index,
+        play,
+        play.outcomeFunctions().stream()
+            .collect(Collectors.toMap(
+                NamedFunction::name,
+                f -> FormattedFunction.format(f).formatted(((Function) f).apply(outcome)),
+                (v1, v2) -> v1,
+                LinkedHashMap::new)));
+  }
+
+  private static List<Play<?, ?, ?, ?>> plays(Object built) {
+    if (built instanceof Play<?, ?, ?, ?> play) {
+      return List.of(play);
+    }
+    if (built instanceof PlayBatch playBatch) {
+      return playBatch.plays();
+    }
+    throw new IllegalArgumentException("Unexpected description of a %s: neither a play nor a play batch"
+        .formatted(built.getClass().getSimpleName()));
+  }
+
+  private static String read(Path path) throws IOException {
+    try (BufferedReader br = Files.newBufferedReader(path)) {
+      return br.lines().collect(Collectors.joining());
+    }
+  }
+
+  private static void runBatch(List<Play<?, ?, ?, ?>> plays, Configuration configuration) {
+    // header is the union of all the outcome function names
+    SequencedSet<String> names = new LinkedHashSet<>();
+    plays.forEach(p -> p.outcomeFunctions().forEach(f -> names.add(NamedFunction.name(f))));
+    L.info("Executing %d plays on %d threads".formatted(plays.size(), configuration.nOfThreads));
+    ExecutorService executorService = Executors.newFixedThreadPool(configuration.nOfThreads);
+    CSVPrinter printer = null;
+    try {
+      PrintStream ps = configuration.outputFilePath.isEmpty()
+          ? System.out
+          : new PrintStream(new FileOutputStream(configuration.outputFilePath));
+      printer = new CSVPrinter(ps, CSVFormat.Builder.create().setDelimiter(";").build());
+      printer.printRecord(Stream.concat(Stream.of("index", "name"), names.stream())
+          .toList());
+      printer.flush();
+      CompletionService<Outcome> completionService = new ExecutorCompletionService<>(executorService);
+      for (int i = 0; i < plays.size(); i++) {
+        int index = i;
+        completionService.submit(() -> execute(index, plays.get(index)));
+      }
+      for (int i = 0; i < plays.size(); i++) {
+        try {
+          Outcome outcome = completionService.take().get();
+          List<String> record = new ArrayList<>();
+          record.add(Integer.toString(outcome.index()));
+          record.add(outcome.play().name());
+          names.forEach(n -> record.add(outcome.values().getOrDefault(n, "")));
+          printer.printRecord(record);
+          printer.flush();
+        } catch (ExecutionException e) {
+          L.severe("Cannot execute play: %s".formatted(e.getCause()));
+          if (configuration.verbose) {
+            //noinspection CallToPrintStackTrace
+            e.getCause().printStackTrace();
+          }
+        }
+      }
+    } catch (IOException e) {
+      L.severe("Cannot write outcomes: %s".formatted(e));
+    } catch (InterruptedException e) {
+      L.severe("Interrupted while waiting for plays: %s".formatted(e));
+      Thread.currentThread().interrupt();
+    } finally {
+      executorService.shutdownNow();
+      if (printer != null) {
+        try {
+          // standard output is only flushed, not closed
+          if (configuration.outputFilePath.isEmpty()) {
+            printer.flush();
+          } else {
+            printer.close(true);
+          }
+        } catch (IOException e) {
+          L.warning("Cannot close outcome file: %s".formatted(e));
+        }
+      }
+    }
+  }
+
   public static void main(String[] args) {
     // read configuration
     Configuration configuration = new Configuration();
@@ -108,7 +261,35 @@ public class Player {
       L.setLevel(Level.SEVERE);
     }
     // prepare local named builder
-    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    NamedBuilder<Object> nb = BuilderIndex.namedBuilder();
+    // check batch
+    if (!configuration.batchFilePaths.isEmpty()) {
+      List<Play<?, ?, ?, ?>> plays = new ArrayList<>();
+      for (String batchFilePath : configuration.batchFilePaths) {
+        try {
+          List<Path> paths;
+          if (Files.isDirectory(Path.of(batchFilePath))) {
+            try (Stream<Path> files = Files.list(Path.of(batchFilePath))) {
+              paths = files.filter(Files::isRegularFile).sorted().toList();
+            }
+          } else {
+            paths = List.of(Path.of(batchFilePath));
+          }
+          for (Path path : paths) {
+            plays.addAll(plays(nb.build(read(path))));
+          }
+        } catch (IOException | BuilderException | IllegalArgumentException e) {
+          L.severe("Cannot read or build play descriptions at %s: %s".formatted(batchFilePath, e));
+          if (configuration.verbose) {
+            //noinspection CallToPrintStackTrace
+            e.printStackTrace();
+          }
+          System.exit(-1);
+        }
+      }
+      runBatch(plays, configuration);
+      return;
+    }
     // read experiment description
     String playDescription = null;
     if (configuration.defaultPlay) {
@@ -150,11 +331,27 @@ public class Player {
     // run player
     try {
       // build solution
+      Object built = nb.build(playDescription);
+      if (built instanceof PlayBatch playBatch) {
+        runBatch(playBatch.plays(), configuration);
+        return;
+      }
+      if (built instanceof Replay replay) {
+        L.info("Replaying trajectory from %s".formatted(replay.filePath()));
+        Replayer.replay(replay);
+        return;
+      }
       L.config("Building genotype");
       @SuppressWarnings("unchecked")
       Play<Object, Object, AgentsObservation, AgentsOutcome<AgentsObservation>> play =
-          (Play<Object, Object, AgentsObservation, AgentsOutcome<AgentsObservation>>)
-              nb.build(playDescription);
+          (Play<Object, Object, AgentsObservation, AgentsOutcome<AgentsObservation>>) built;
+      if (configuration.benchmark) {
+        L.info("Benchmarking the play with %d warmups and %d repetitions"
+            .formatted(configuration.nOfWarmups, configuration.nOfRepetitions));
+        PlayBenchmark.print(
+            PlayBenchmark.measure(play, configuration.nOfWarmups, configuration.nOfRepetitions), System.out);
+        return;
+      }
       Object genotype = play.genotype().apply(play.mapper().exampleFor(null));
       L.config("Building solution");
       Object solution = play.mapper().mapperFor(null).apply(genotype);
@@ -182,6 +379,13 @@ public class Player {
                 ((Function) f).apply(outcome)));
       }
       consumer.run();
+    } catch (IOException e) {
+      L.severe("Cannot replay trajectory: %s%n".formatted(e));
+      if (configuration.verbose) {
+        //noinspection CallToPrintStackTrace
+        e.printStackTrace();
+      }
+      System.exit(-1);
     } catch (BuilderException e) {
       L.severe("Cannot build experiment: %s%n".formatted(e));
       if (configuration.verbose) {
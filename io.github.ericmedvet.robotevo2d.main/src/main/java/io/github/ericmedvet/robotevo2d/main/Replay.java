@@ -0,0 +1,33 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.robotevo2d.main.builders.PlayConsumers;
+import java.util.List;
+
+@Discoverable(prefixTemplate = "evorobots|er")
+public record Replay(
+    @Param("filePath") String filePath,
+    @Param(value = "startTime", dD = 0) double startTime,
+    @Param(value = "endTime", dD = Double.POSITIVE_INFINITY) double endTime,
+    @Param("consumers") List<PlayConsumers.ProducingConsumer> consumers) {}
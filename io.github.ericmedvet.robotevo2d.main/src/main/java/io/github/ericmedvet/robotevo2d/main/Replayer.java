@@ -0,0 +1,58 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.robotevo2d.main.builders.PlayConsumers;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryReader;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectorySnapshot;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryStep;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+// feeds the consumers with snapshots rebuilt from a recorded trajectory, hence without simulating
+public class Replayer {
+
+  private Replayer() {}
+
+  public static void replay(Replay replay) throws IOException {
+    PlayConsumers.ProducingConsumer consumer = replay.consumers().stream()
+        .reduce(PlayConsumers.ProducingConsumer::andThen)
+        .orElse(PlayConsumers.ProducingConsumer.from(s -> {}, () -> {}));
+    replay(new TrajectoryReader(Path.of(replay.filePath())), consumer, replay.startTime(), replay.endTime());
+    consumer.run();
+  }
+
+  public static void replay(
+      TrajectoryReader reader, Consumer<Snapshot> consumer, double startTime, double endTime) {
+    // every step is decoded, since steps are delta-encoded, but only the ones in the time window are rebuilt
+    while (reader.hasNext()) {
+      TrajectoryStep step = reader.next();
+      if (step.t() > endTime) {
+        return;
+      }
+      if (step.t() >= startTime) {
+        consumer.accept(TrajectorySnapshot.from(step));
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.builders;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.mrsim2d.viewer.Drawer;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryDrawer;
+import java.util.function.Function;
+
+@Discoverable(prefixTemplate = "evorobots|er.drawer|d")
+public class Drawers {
+
+  private Drawers() {}
+
+  @SuppressWarnings("unused")
+  public static Function<String, Drawer> trajectory(@Param(value = "viewWidth", dD = 10) double viewWidth) {
+    return title -> {
+      TrajectoryDrawer trajectoryDrawer = new TrajectoryDrawer(title, viewWidth);
+      return trajectoryDrawer::draw;
+    };
+  }
+}
@@ -23,6 +23,9 @@ import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
 import io.github.ericmedvet.jnb.datastructure.FormattedNamedFunction;
 import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody;
+import io.github.ericmedvet.robotevo2d.main.tasks.EarlyStoppingTask;
+import io.github.ericmedvet.robotevo2d.main.util.AgentPool;
+import io.github.ericmedvet.robotevo2d.main.util.LruCache;
 import java.util.function.Function;
 
 @Discoverable(prefixTemplate = "evorobots|er.function|f")
@@ -30,6 +33,30 @@ public class Functions {
 
   private Functions() {}
 
+  @SuppressWarnings("unused")
+  public static <X> FormattedNamedFunction<X, Double> agentPoolHitRate(
+      @Param(value = "pool", dS = Mappers.AGENT_POOL_NAME) String poolName,
+      @Param(value = "format", dS = "%5.3f") String format) {
+    Function<X, Double> f = x -> AgentPool.stats(poolName).hitRate();
+    return FormattedNamedFunction.from(f, format, "%s.pool.hit.rate".formatted(poolName));
+  }
+
+  @SuppressWarnings("unused")
+  public static <X> FormattedNamedFunction<X, Double> cacheHitRate(
+      @Param(value = "cache", dS = Mappers.BODY_CACHE_NAME) String cacheName,
+      @Param(value = "format", dS = "%5.3f") String format) {
+    Function<X, Double> f = x -> LruCache.stats(cacheName).hitRate();
+    return FormattedNamedFunction.from(f, format, "%s.cache.hit.rate".formatted(cacheName));
+  }
+
+  @SuppressWarnings("unused")
+  public static <X> FormattedNamedFunction<X, Long> cacheMisses(
+      @Param(value = "cache", dS = Mappers.BODY_CACHE_NAME) String cacheName,
+      @Param(value = "format", dS = "%6d") String format) {
+    Function<X, Long> f = x -> LruCache.stats(cacheName).misses();
+    return FormattedNamedFunction.from(f, format, "%s.cache.misses".formatted(cacheName));
+  }
+
   @SuppressWarnings("unused")
   public static <X> FormattedNamedFunction<X, Boolean> nonEmptyVoxel(
       @Param(value = "of", dNPM = "f.identity()") Function<X, GridBody.Element> beforeF,
@@ -37,4 +64,12 @@ public class Functions {
     Function<GridBody.Element, Boolean> f = e -> !e.type().equals(GridBody.VoxelType.NONE);
     return FormattedNamedFunction.from(f, format, "non.empty.voxel").compose(beforeF);
   }
+
+  @SuppressWarnings("unused")
+  public static <X> FormattedNamedFunction<X, Double> stopT(
+      @Param(value = "of", dNPM = "f.identity()") Function<X, ?> beforeF,
+      @Param(value = "format", dS = "%5.2f") String format) {
+    Function<Object, Double> f = EarlyStoppingTask::stopT;
+    return FormattedNamedFunction.from(f, format, "stop.t").compose(beforeF);
+  }
 }
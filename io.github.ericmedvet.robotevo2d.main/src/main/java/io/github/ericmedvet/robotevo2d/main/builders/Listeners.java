@@ -20,22 +20,137 @@
 package io.github.ericmedvet.robotevo2d.main.builders;
 
 import io.github.ericmedvet.jgea.core.listener.AccumulatorFactory;
+import io.github.ericmedvet.jgea.core.listener.Listener;
 import io.github.ericmedvet.jgea.core.listener.ListenerFactory;
 import io.github.ericmedvet.jgea.core.solver.POCPopulationState;
 import io.github.ericmedvet.jgea.experimenter.Experiment;
 import io.github.ericmedvet.jgea.experimenter.Run;
 import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.mrsim2d.viewer.Drawer;
+import io.github.ericmedvet.robotevo2d.main.Replayer;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryReader;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryStore;
+import io.github.ericmedvet.robotevo2d.main.util.VideoWriter;
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Logger;
 
 @Discoverable(prefixTemplate = "evorobots|er.listener|l")
 public class Listeners {
 
+  private static final Logger L = Logger.getLogger(Listeners.class.getName());
+
   private Listeners() {}
 
+  @SuppressWarnings("unused")
+  public static <A>
+      BiFunction<Experiment, ExecutorService, ListenerFactory<POCPopulationState<?, ?, A, ?, ?>, Run<?, ?, A, ?>>>
+          trajectoryVideoSaver(
+              @Param(value = "store", dS = "best") String storeName,
+              @Param(value = "filePathTemplate", dS = "best-%03d.mp4") String filePathTemplate,
+              @Param(value = "w", dI = 300) int w,
+              @Param(value = "h", dI = 200) int h,
+              @Param(value = "drawer", dNPM = "er.d.trajectory()") Function<String, Drawer> drawer,
+              @Param(value = "frameRate", dD = 30) double frameRate,
+              @Param(value = "encoder", dS = "auto") VideoWriter.Encoder encoder,
+              @Param(value = "ffmpegPath", dS = "ffmpeg") String ffmpegPath,
+              @Param(value = "nOfThreads", dI = 2) int nOfThreads,
+              @Param(value = "maxShutdownTime", dD = 600) double maxShutdownTime) {
+    return (experiment, executorService) -> {
+      // renderings are done on a dedicated executor, so that they do not compete with fitness evaluations
+      ExecutorService renderingExecutorService = Executors.newFixedThreadPool(nOfThreads);
+      return new ListenerFactory<>() {
+        @Override
+        public Listener<POCPopulationState<?, ?, A, ?, ?>> build(Run<?, ?, A, ?> run) {
+          return new Listener<>() {
+            private Object best;
+            private byte[] bestBytes;
+            private boolean bestRecorded;
+
+            @Override
+            public void done() {
+              if (best == null) {
+                return;
+              }
+              // a trajectory is not in the store if its score was not among the best ones when it was recorded
+              if (bestBytes == null) {
+                L.warning("No recorded trajectory in store %s for any of the best solutions of run %d"
+                    .formatted(storeName, run.index()));
+                return;
+              }
+              if (!bestRecorded) {
+                L.warning(("No recorded trajectory in store %s for the best solution of run %d: the video shows the "
+                        + "last best solution with a recorded trajectory")
+                    .formatted(storeName, run.index()));
+              }
+              byte[] bytes = bestBytes;
+              renderingExecutorService.submit(() -> {
+                try {
+                  PlayConsumers.ProducingConsumer consumer = PlayConsumers.video(
+                      "",
+                      drawer,
+                      w,
+                      h,
+                      frameRate,
+                      0,
+                      Double.POSITIVE_INFINITY,
+                      filePathTemplate.formatted(run.index()),
+                      encoder,
+                      ffmpegPath);
+                  Replayer.replay(new TrajectoryReader(bytes), consumer, 0, Double.POSITIVE_INFINITY);
+                  consumer.run();
+                } catch (IOException | RuntimeException e) {
+                  L.warning("Cannot render video of run %d due to %s".formatted(run.index(), e));
+                }
+              });
+            }
+
+            @Override
+            public void listen(POCPopulationState<?, ?, A, ?, ?> state) {
+              // the trajectory is taken as soon as the solution becomes the best one, since it may be later evicted
+              // from the store, which keeps only the ones with the best scores
+              Object solution = state.pocPopulation().firsts().iterator().next().solution();
+              if (solution == best) {
+                return;
+              }
+              best = solution;
+              Optional<byte[]> oBytes = TrajectoryStore.find(storeName, TrajectoryStore.key(best));
+              bestRecorded = oBytes.isPresent();
+              if (bestRecorded) {
+                bestBytes = oBytes.get();
+              }
+            }
+          };
+        }
+
+        @Override
+        public void shutdown() {
+          renderingExecutorService.shutdown();
+          try {
+            // the wait is bounded, so that a stuck rendering does not prevent the experiment from ending
+            if (!renderingExecutorService.awaitTermination(
+                Math.round(maxShutdownTime * 1000d), TimeUnit.MILLISECONDS)) {
+              List<Runnable> notStarted = renderingExecutorService.shutdownNow();
+              L.warning("Videos not rendered in %.0fs: %d not started, the others interrupted"
+                  .formatted(maxShutdownTime, notStarted.size()));
+            }
+          } catch (InterruptedException e) {
+            renderingExecutorService.shutdownNow();
+            Thread.currentThread().interrupt();
+          }
+        }
+      };
+    };
+  }
+
   @SuppressWarnings("unused")
   public static <A>
       BiFunction<Experiment, ExecutorService, ListenerFactory<POCPopulationState<?, ?, A, ?, ?>, Run<?, ?, A, ?>>>
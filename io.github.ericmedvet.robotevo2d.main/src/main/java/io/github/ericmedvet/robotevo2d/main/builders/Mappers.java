@@ -23,6 +23,9 @@ package io.github.ericmedvet.robotevo2d.main.builders;
 import io.github.ericmedvet.jgea.core.InvertibleMapper;
 import io.github.ericmedvet.jgea.core.representation.NamedMultivariateRealFunction;
 import io.github.ericmedvet.jgea.core.representation.sequence.integer.IntString;
+import io.github.ericmedvet.jgea.core.representation.tree.Tree;
+import io.github.ericmedvet.jgea.core.representation.tree.numeric.Element;
+import io.github.ericmedvet.jgea.core.representation.tree.numeric.TreeBasedMultivariateRealFunction;
 import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.NamedBuilder;
 import io.github.ericmedvet.jnb.core.NamedParamMap;
@@ -33,6 +36,7 @@ import io.github.ericmedvet.jnb.datastructure.GridUtils;
 import io.github.ericmedvet.jnb.datastructure.NumericalParametrized;
 import io.github.ericmedvet.jnb.datastructure.Pair;
 import io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems;
+import io.github.ericmedvet.jsdynsym.core.StatelessSystem;
 import io.github.ericmedvet.jsdynsym.core.composed.Composed;
 import io.github.ericmedvet.jsdynsym.core.numerical.MultivariateRealFunction;
 import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
@@ -45,15 +49,75 @@ import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody;
 import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.ReactiveGridVSR;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
+import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.SharedWeightsMLP;
+import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.TreeCompiler;
+import io.github.ericmedvet.robotevo2d.main.util.AgentPool;
+import io.github.ericmedvet.robotevo2d.main.util.KeyedSupplier;
+import io.github.ericmedvet.robotevo2d.main.util.LruCache;
+import io.github.ericmedvet.robotevo2d.main.util.Prototype;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 @Discoverable(prefixTemplate = "evorobots|er.mapper|m")
 public class Mappers {
 
+  public static final String AGENT_POOL_NAME = "agent";
+  public static final String BODY_CACHE_NAME = "body";
+  public static final String GENOTYPE_CACHE_NAME = "genotype";
+
   private Mappers() {}
 
+  private record BodyKey(int w, int h, Object[] values, int hash) {
+    // the hash is computed once, since keys are looked up many times
+    private BodyKey(int w, int h, Object[] values) {
+      this(w, h, values, 31 * (31 * w + h) + Arrays.hashCode(values));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      return o instanceof BodyKey other
+          && hash == other.hash
+          && w == other.w
+          && h == other.h
+          && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private record SolutionKey(Object mapperId, Object genotype) {}
+
+  private record ValuesKey(double[] values, int hash) {
+    private ValuesKey(double[] values) {
+      this(values, Arrays.hashCode(values));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      return o instanceof ValuesKey other && hash == other.hash && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
   private static int argmax(double[] values) {
     if (values.length == 0) {
       throw new IllegalArgumentException("Empty array");
@@ -75,36 +139,93 @@ public class Mappers {
       @Param(value = "h", dI = 10) int h,
       @Param(value = "nOfSignals", dI = 1) int nOfSignals,
       @Param(value = "directional", dB = true) boolean directional,
-      @Param(value = "sensors") List<Sensor<? super Body>> sensors) {
+      @Param(value = "sensors") List<Sensor<? super Body>> sensors,
+      @Param(value = "bodyCacheSize", dI = 1000) int bodyCacheSize) {
     Pair<Grid<GridBody.VoxelType>, NumericalDynamicalSystem<?>> ePair = new Pair<>(
         Grid.create(w, h, GridBody.VoxelType.SOFT),
         NumericalDynamicalSystems.Builder.empty()
             .apply(
                 DistributedNumGridVSR.nOfInputs(sensors, nOfSignals, directional),
                 DistributedNumGridVSR.nOfOutputs(sensors, nOfSignals, directional)));
+    LruCache<BodyKey, Grid<GridBody.VoxelType>> bodyCache = new LruCache<>(BODY_CACHE_NAME, bodyCacheSize);
+    // blank brains are decoded from the example genotype, which does not depend on the solution
+    X exampleX = beforeM.exampleFor(ePair);
+    Object mapperId = new Object();
     return InvertibleMapper.from(
-        (supplier, x) -> () -> {
-          Grid<GridBody.VoxelType> grid = GridUtils.largestConnected(
-              beforeM.mapperFor(ePair).apply(x).first(),
-              vt -> !vt.equals(GridBody.VoxelType.NONE),
-              GridBody.VoxelType.NONE);
-          if (grid.values().stream().allMatch(vt -> vt.equals(GridBody.VoxelType.NONE))) {
-            grid = Grid.create(1, 1, GridBody.VoxelType.RIGID);
-          }
-          return new DistributedNumGridVSR(
-              new GridBody(grid.map(vt -> new GridBody.SensorizedElement(
-                  new GridBody.Element(vt, Voxel.DEFAULT_MATERIAL), sensors))),
-              grid.map(vt -> vt.equals(GridBody.VoxelType.NONE)
-                  ? null
-                  : beforeM.mapperFor(ePair).apply(x).second()),
-              nOfSignals,
-              directional);
+        (supplier, x) -> {
+          Function<X, Pair<Grid<GridBody.VoxelType>, NumericalDynamicalSystem<?>>> decoder =
+              beforeM.mapperFor(ePair);
+          Grid<GridBody.VoxelType> rawGrid = decoder.apply(x).first();
+          Grid<GridBody.VoxelType> body = bodyCache.computeIfAbsent(bodyKey(rawGrid), k -> {
+                Grid<GridBody.VoxelType> grid = GridUtils.largestConnected(
+                    rawGrid, vt -> !vt.equals(GridBody.VoxelType.NONE), GridBody.VoxelType.NONE);
+                if (grid.values().stream().allMatch(vt -> vt.equals(GridBody.VoxelType.NONE))) {
+                  grid = Grid.create(1, 1, GridBody.VoxelType.RIGID);
+                }
+                return grid;
+              });
+          return new KeyedSupplier<>(new SolutionKey(mapperId, x), () -> {
+            Supplier<NumericalDynamicalSystem<?>> brains =
+                homoBrains(() -> decoder.apply(x).second(), () -> decoder.apply(exampleX).second());
+            return new DistributedNumGridVSR(
+                new GridBody(body.map(vt -> new GridBody.SensorizedElement(
+                    new GridBody.Element(vt, Voxel.DEFAULT_MATERIAL), sensors))),
+                body.map(vt -> vt.equals(GridBody.VoxelType.NONE) ? null : brains.get()),
+                nOfSignals,
+                directional);
+          });
         },
         supplier -> beforeM.exampleFor(ePair),
         "%s→bodyBrainHomoDistributedVSR[%dx%d;nOfSignals=%d;directional=%s]"
             .formatted(beforeM, w, h, nOfSignals, directional));
   }
 
+  // parametrized brains are copied by serialization or, if not serializable, as blank brains of the same shape,
+  // whose params are later overwritten
+  private static Optional<UnaryOperator<NumericalDynamicalSystem<?>>> brainCopier(
+      NumericalDynamicalSystem<?> brain, Supplier<NumericalDynamicalSystem<?>> blankBrains) {
+    if (Composed.shallowest(brain, NumericalParametrized.class).isEmpty()) {
+      return Optional.empty();
+    }
+    if (Prototype.of(brain).isPresent()) {
+      return Optional.of(b -> Prototype.of(b).orElseThrow().get());
+    }
+    NumericalDynamicalSystem<?> blankBrain = blankBrains.get();
+    if (blankBrain != brain
+        && blankBrain.getClass().equals(brain.getClass())
+        && Composed.shallowest(blankBrain, NumericalParametrized.class).isPresent()
+        && nOfParams(blankBrain) == nOfParams(brain)) {
+      return Optional.of(b -> blankBrains.get());
+    }
+    return Optional.empty();
+  }
+
+  // genotypes which are lists of doubles are kept as arrays, which take less memory and are compared without unboxing
+  private static Object genotypeKey(Object genotype) {
+    if (!(genotype instanceof List<?> list)) {
+      return genotype;
+    }
+    double[] values = new double[list.size()];
+    for (int i = 0; i < values.length; i = i + 1) {
+      if (!(list.get(i) instanceof Double value)) {
+        return genotype;
+      }
+      values[i] = value;
+    }
+    return new ValuesKey(values);
+  }
+
+  private static BodyKey bodyKey(Grid<?> grid) {
+    return new BodyKey(grid.w(), grid.h(), grid.values().toArray());
+  }
+
+  private static Optional<Grid<Integer>> canonicalIndexGrid(Grid<Integer> indexGrid) {
+    if (indexGrid.values().stream().max(Integer::compareTo).orElse(0) == 0) {
+      return Optional.empty();
+    }
+    return Optional.of(GridUtils.fit(GridUtils.largestConnected(indexGrid, i -> i > 0, 0), i -> i > 0));
+  }
+
   private static void checkIOSizeConsistency(NumMultiBrained numMultiBrained) {
     List<Integer> inSizes = numMultiBrained.brains().stream()
         .map(NumericalDynamicalSystem::nOfInputs)
@@ -126,10 +247,7 @@ public class Mappers {
 
   private static void checkNumericalParametrizedSizeConsistency(NumMultiBrained numMultiBrained) {
     List<Integer> brainSizes = numMultiBrained.brains().stream()
-        .map(b -> ((double[]) Composed.shallowest(b, NumericalParametrized.class)
-                .orElseThrow()
-                .getParams())
-            .length)
+        .map(Mappers::nOfParams)
         .distinct()
         .toList();
     if (brainSizes.size() != 1) {
@@ -154,38 +272,28 @@ public class Mappers {
       @Param(value = "", injection = Param.Injection.MAP) ParamMap map,
       @Param(value = "", injection = Param.Injection.BUILDER) NamedBuilder<?> builder) {
     checkType(target, NumericalParametrized.class);
-    List<Integer> brainSizes = target.brains().stream()
-        .map(b -> ((double[]) Composed.shallowest(b, NumericalParametrized.class)
-                .orElseThrow()
-                .getParams())
-            .length)
-        .toList();
-    int overallBrainSize = brainSizes.stream().mapToInt(i -> i).sum();
+    int[] brainSizes = target.brains().stream().mapToInt(Mappers::nOfParams).toArray();
+    int overallBrainSize = Arrays.stream(brainSizes).sum();
+    Supplier<T> targets = targets(target, map, builder);
+    Object mapperId = new Object();
     return beforeM.andThen(InvertibleMapper.from(
         (supplier, values) -> {
           if (values.size() != overallBrainSize) {
             throw new IllegalArgumentException("Wrong number of params: %d expected, %d found"
                 .formatted(overallBrainSize, values.size()));
           }
-          return () -> {
-            @SuppressWarnings("unchecked")
-            T t = (T) builder.build((NamedParamMap) map.value("target", ParamMap.Type.NAMED_PARAM_MAP));
+          double[] params = values.stream().mapToDouble(d -> d).toArray();
+          return new KeyedSupplier<>(new SolutionKey(mapperId, values), () -> {
+            T t = targets.get();
             int c = 0;
+            int i = 0;
             for (NumericalDynamicalSystem<?> brain : t.brains()) {
-              int brainSize = ((double[]) Composed.shallowest(brain, NumericalParametrized.class)
-                      .orElseThrow()
-                      .getParams())
-                  .length;
-              //noinspection unchecked
-              Composed.shallowest(brain, NumericalParametrized.class)
-                  .orElseThrow()
-                  .setParams(values.subList(c, c + brainSize).stream()
-                      .mapToDouble(d -> d)
-                      .toArray());
-              c = c + brainSize;
+              setParams(brain, Arrays.copyOfRange(params, c, c + brainSizes[i]));
+              c = c + brainSizes[i];
+              i = i + 1;
             }
             return t;
-          };
+          });
         },
         supplier -> Collections.nCopies(overallBrainSize, 0d),
         "dsToNpHeteroBrains"));
@@ -201,68 +309,166 @@ public class Mappers {
     checkIOSizeConsistency(target);
     checkNumericalParametrizedSizeConsistency(target);
     int brainSize = target.brains().stream()
-        .map(b -> ((double[]) Composed.shallowest(b, NumericalParametrized.class)
-                .orElseThrow()
-                .getParams())
-            .length)
+        .mapToInt(Mappers::nOfParams)
         .findFirst()
         .orElseThrow();
+    Supplier<T> targets = targets(target, map, builder);
+    Object mapperId = new Object();
     return beforeM.andThen(InvertibleMapper.from(
         (supplier, values) -> {
           if (values.size() != brainSize) {
             throw new IllegalArgumentException(
                 "Wrong number of params: %d expected, %d found".formatted(brainSize, values.size()));
           }
-          return () -> {
-            @SuppressWarnings("unchecked")
-            T t = (T) builder.build((NamedParamMap) map.value("target", ParamMap.Type.NAMED_PARAM_MAP));
-            //noinspection unchecked
-            t.brains().forEach(b -> Composed.shallowest(b, NumericalParametrized.class)
-                .orElseThrow()
-                .setParams(values.stream().mapToDouble(d -> d).toArray()));
+          double[] params = values.stream().mapToDouble(d -> d).toArray();
+          return new KeyedSupplier<>(new SolutionKey(mapperId, values), () -> {
+            T t = targets.get();
+            t.brains().forEach(b -> setParams(b, params.clone()));
             return t;
-          };
+          });
         },
         supplier -> Collections.nCopies(brainSize, 0d),
         "dsToNpHomoBrains"));
   }
 
+  private static Supplier<NumericalDynamicalSystem<?>> homoBrains(
+      Supplier<NumericalDynamicalSystem<?>> decoder, Supplier<NumericalDynamicalSystem<?>> blankBrains) {
+    // decode once, then give views of the same weights, share the brain if stateless, or copy the params on a blank
+    // brain of the same shape; decode one more only if the brain is not parametrized
+    NumericalDynamicalSystem<?> firstBrain = decoder.get();
+    double[] params = Composed.shallowest(firstBrain, NumericalParametrized.class)
+        .map(np -> (double[]) np.getParams())
+        .orElse(null);
+    boolean[] firstUsed = new boolean[] {false};
+    return () -> {
+      if (!firstUsed[0]) {
+        firstUsed[0] = true;
+        return firstBrain;
+      }
+      if (firstBrain instanceof SharedWeightsMLP sharedWeightsMLP) {
+        return sharedWeightsMLP.view();
+      }
+      if (firstBrain instanceof StatelessSystem) {
+        return firstBrain;
+      }
+      if (params != null) {
+        NumericalDynamicalSystem<?> brain = blankBrains.get();
+        if (brain != firstBrain
+            && brain.getClass().equals(firstBrain.getClass())
+            && Composed.shallowest(brain, NumericalParametrized.class).isPresent()
+            && nOfParams(brain) == params.length) {
+          setParams(brain, params.clone());
+          return brain;
+        }
+      }
+      return decoder.get();
+    };
+  }
+
+
+  private static Grid<Integer> indexGrid(
+      NamedMultivariateRealFunction nmrf, int w, int h, double[][] coordinates) {
+    Integer[] indexes = new Integer[w * h];
+    // compiled functions write the outputs of all the cells on the same array
+    Optional<TreeCompiler.CompiledMultivariateRealFunction> oCompiled =
+        Composed.shallowest(nmrf, TreeCompiler.CompiledMultivariateRealFunction.class);
+    double[] output = new double[nmrf.nOfOutputs()];
+    for (int i = 0; i < indexes.length; i = i + 1) {
+      if (oCompiled.isPresent()) {
+        oCompiled.get().computeInto(coordinates[i], output);
+      } else {
+        output = nmrf.apply(coordinates[i]);
+      }
+      int iMax = argmax(output);
+      indexes[i] = output[iMax] > 0 ? iMax + 1 : 0;
+    }
+    return Grid.create(w, h, (x, y) -> indexes[x + y * w]);
+  }
+
   @SuppressWarnings("unused")
   public static <X> InvertibleMapper<X, Supplier<ReactiveGridVSR>> isToReactiveGridVsr(
       @Param(value = "of", dNPM = "ea.m.identity()") InvertibleMapper<X, IntString> beforeM,
       @Param("w") int w,
       @Param("h") int h,
-      @Param("availableVoxels") List<Supplier<ReactiveGridVSR.ReactiveVoxel>> availableVoxels) {
+      @Param("availableVoxels") List<Supplier<ReactiveGridVSR.ReactiveVoxel>> availableVoxels,
+      @Param(value = "bodyCacheSize", dI = 1000) int bodyCacheSize) {
     IntString exampleGenotype = new IntString(Collections.nCopies(w * h, 0), 0, availableVoxels.size() + 1);
+    LruCache<BodyKey, Optional<Grid<Integer>>> bodyCache = new LruCache<>(BODY_CACHE_NAME, bodyCacheSize);
+    Object mapperId = new Object();
     return beforeM.andThen(InvertibleMapper.from(
         (supplier, s) -> {
-          Grid<Integer> indexGrid = Grid.create(w, h, s.genes());
-          Grid<ReactiveGridVSR.ReactiveVoxel> body;
-          if (indexGrid.values().stream().max(Integer::compareTo).orElse(0) == 0) {
-            body = Grid.create(1, 1, ReactiveVoxels.ph());
-          } else {
-            body = GridUtils.fit(GridUtils.largestConnected(indexGrid, i -> i > 0, 0), i -> i > 0)
-                .map(i -> i == 0
-                    ? ReactiveVoxels.none()
-                    : availableVoxels.get(i - 1).get());
-          }
-          return () -> new ReactiveGridVSR(body);
+          Grid<Integer> rawGrid = Grid.create(w, h, s.genes());
+          Optional<Grid<Integer>> indexGrid =
+              bodyCache.computeIfAbsent(bodyKey(rawGrid), k -> canonicalIndexGrid(rawGrid));
+          Grid<ReactiveGridVSR.ReactiveVoxel> body = toReactiveBody(indexGrid, availableVoxels);
+          // keyed on the phenotype, so that different genotypes resulting in the same body share the key
+          Optional<BodyKey> phenotypeKey = indexGrid.map(Mappers::bodyKey);
+          return new KeyedSupplier<>(new SolutionKey(mapperId, phenotypeKey), () -> new ReactiveGridVSR(body));
         },
         supplier -> exampleGenotype,
         "isToReactiveGridVsr[w=%d;h=%d]".formatted(w, h)));
   }
 
+  @SuppressWarnings("unused")
+  public static <X> InvertibleMapper<X, NamedMultivariateRealFunction> multiSrTreeToCompiledNmrf(
+      @Param(value = "of", dNPM = "ea.m.identity()") InvertibleMapper<X, List<Tree<Element>>> beforeM,
+      @Param(value = "postOperator", dNPM = "ds.f.doubleOp(activationF = identity)")
+          Function<Double, Double> postOperator) {
+    return beforeM.andThen(InvertibleMapper.from(
+        (nmrf, trees) -> TreeCompiler.compile(trees, nmrf.xVarNames(), nmrf.yVarNames(), postOperator),
+        nmrf -> TreeBasedMultivariateRealFunction.sampleFor(nmrf.xVarNames(), nmrf.yVarNames()),
+        "multiSrTreeToCompiledNmrf[po=%s]".formatted(postOperator)));
+  }
+
+  private static int nOfParams(NumericalDynamicalSystem<?> brain) {
+    return ((double[]) Composed.shallowest(brain, NumericalParametrized.class)
+            .orElseThrow()
+            .getParams())
+        .length;
+  }
+
   @SuppressWarnings("unused")
   public static <X> InvertibleMapper<X, Supplier<CentralizedNumGridVSR>> ndsToFixedBodyCentralizedVSR(
       @Param(value = "of", dNPM = "ea.m.identity()") InvertibleMapper<X, NumericalDynamicalSystem<?>> beforeM,
       @Param("body") GridBody body,
+      @Param(value = "poolSize", dI = 0) int poolSize,
       @Param(value = "", injection = Param.Injection.MAP) ParamMap map,
       @Param(value = "", injection = Param.Injection.BUILDER) NamedBuilder<?> builder) {
+    NumericalDynamicalSystem<?> exampleNds = NumericalDynamicalSystems.Builder.empty()
+        .apply(CentralizedNumGridVSR.nOfInputs(body), CentralizedNumGridVSR.nOfOutputs(body));
+    AgentPool<GridBody, CentralizedNumGridVSR> pool = new AgentPool<>(AGENT_POOL_NAME, poolSize);
+    // the brains of the mapper have all the same structure, hence how to copy them is chosen once
+    AtomicReference<Optional<UnaryOperator<NumericalDynamicalSystem<?>>>> copier = new AtomicReference<>();
+    Object mapperId = new Object();
     return beforeM.andThen(InvertibleMapper.from(
-        (supplier, nds) -> () -> new CentralizedNumGridVSR(body, nds),
-        supplier -> NumericalDynamicalSystems.Builder.empty()
-            .apply(CentralizedNumGridVSR.nOfInputs(body), CentralizedNumGridVSR.nOfOutputs(body)),
-        "nmrfToCentralizedVSR[body=%s]".formatted(map.value("body"))));
+        (supplier, nds) -> {
+          if (poolSize > 0 && copier.get() == null) {
+            copier.set(brainCopier(nds, () -> beforeM.apply(beforeM.exampleFor(exampleNds))));
+          }
+          // the brain of a pooled agent is later overwritten, hence it is a copy of nds; the brain is the only state
+          // of the agent, since its voxels are built anew at each assembly in the engine
+          Supplier<CentralizedNumGridVSR> agentSupplier = poolSize > 0 && copier.get().isPresent()
+              ? () -> pool.get(
+                  body,
+                  () -> {
+                    CentralizedNumGridVSR vsr =
+                        new CentralizedNumGridVSR(body, copier.get().orElseThrow().apply(nds));
+                    overwriteBrains(vsr, nds);
+                    return vsr;
+                  },
+                  vsr -> overwriteBrains(vsr, nds))
+              : () -> new CentralizedNumGridVSR(body, nds);
+          // only parametrized brains have a value-based key
+          return Composed.shallowest(nds, NumericalParametrized.class)
+              .<Supplier<CentralizedNumGridVSR>>map(np -> new KeyedSupplier<>(
+                  new SolutionKey(
+                      mapperId,
+                      Arrays.stream((double[]) np.getParams()).boxed().toList()),
+                  agentSupplier))
+              .orElse(agentSupplier);
+        },
+        supplier -> exampleNds,
+        "ndsToFixedBodyCentralizedVSR[body=%s]".formatted(map.value("body"))));
   }
 
   @SuppressWarnings("unused")
@@ -289,15 +495,19 @@ public class Mappers {
     }
     NumericalDynamicalSystem<?> nds =
         NumericalDynamicalSystems.Builder.empty().apply(inputSizes.get(0), outputSizes.get(0));
+    // blank brains are decoded from the example genotype, which does not depend on the solution
+    X exampleX = beforeM.exampleFor(nds);
+    Object mapperId = new Object();
     return InvertibleMapper.from(
-        (supplier, x) -> () -> new DistributedNumGridVSR(
-            body,
-            body.grid()
-                .map(se -> se.element().type().equals(GridBody.VoxelType.NONE)
-                    ? null
-                    : beforeM.mapperFor(nds).apply(x)),
-            nOfSignals,
-            directional),
+        (supplier, x) -> new KeyedSupplier<>(new SolutionKey(mapperId, x), () -> {
+          Supplier<NumericalDynamicalSystem<?>> brains = homoBrains(
+              () -> beforeM.mapperFor(nds).apply(x), () -> beforeM.mapperFor(nds).apply(exampleX));
+          return new DistributedNumGridVSR(
+              body,
+              body.grid().map(se -> se.element().type().equals(GridBody.VoxelType.NONE) ? null : brains.get()),
+              nOfSignals,
+              directional);
+        }),
         supplier -> beforeM.exampleFor(nds),
         "%s→ndsToFixedBodyHomoDistributedVSR[nOfSignals=%d;directional=%s]"
             .formatted(beforeM, nOfSignals, directional));
@@ -308,29 +518,74 @@ public class Mappers {
       @Param(value = "of", dNPM = "ea.m.identity()") InvertibleMapper<X, NamedMultivariateRealFunction> beforeM,
       @Param("w") int w,
       @Param("h") int h,
-      @Param("availableVoxels") List<Supplier<ReactiveGridVSR.ReactiveVoxel>> availableVoxels) {
-    return beforeM.andThen(InvertibleMapper.from(
-        (supplier, nmrf) -> {
-          Grid<Integer> indexGrid = Grid.create(w, h, (x, y) -> {
-            double[] output = nmrf.apply(new double[] {(double) x / (double) w, (double) y / (double) h});
-            int iMax = argmax(output);
-            return output[iMax] > 0 ? iMax + 1 : 0;
+      @Param("availableVoxels") List<Supplier<ReactiveGridVSR.ReactiveVoxel>> availableVoxels,
+      @Param(value = "bodyCacheSize", dI = 1000) int bodyCacheSize,
+      @Param(value = "genotypeCacheSize", dI = 1000) int genotypeCacheSize) {
+    NamedMultivariateRealFunction exampleNmrf = NamedMultivariateRealFunction.from(
+        MultivariateRealFunction.from(vs -> vs, 2, availableVoxels.size()),
+        List.of("x", "y"),
+        MultivariateRealFunction.varNames("v", availableVoxels.size()));
+    // the inputs of the function are the same for every genotype
+    double[][] coordinates = new double[w * h][];
+    for (int y = 0; y < h; y = y + 1) {
+      for (int x = 0; x < w; x = x + 1) {
+        coordinates[x + y * w] = new double[] {(double) x / (double) w, (double) y / (double) h};
+      }
+    }
+    LruCache<BodyKey, Optional<Grid<Integer>>> bodyCache = new LruCache<>(BODY_CACHE_NAME, bodyCacheSize);
+    LruCache<Object, Optional<Grid<Integer>>> genotypeCache =
+        new LruCache<>(GENOTYPE_CACHE_NAME, genotypeCacheSize);
+    Object mapperId = new Object();
+    return InvertibleMapper.from(
+        (supplier, g) -> {
+          // on a hit, the function is neither decoded nor evaluated
+          Optional<Grid<Integer>> canonicalIndexGrid = genotypeCache.computeIfAbsent(genotypeKey(g), k -> {
+            NamedMultivariateRealFunction nmrf = beforeM.mapperFor(exampleNmrf).apply(g);
+            Grid<Integer> indexGrid = indexGrid(nmrf, w, h, coordinates);
+            return bodyCache.computeIfAbsent(bodyKey(indexGrid), bk -> canonicalIndexGrid(indexGrid));
           });
-          Grid<ReactiveGridVSR.ReactiveVoxel> body;
-          if (indexGrid.values().stream().max(Integer::compareTo).orElse(0) == 0) {
-            body = Grid.create(1, 1, ReactiveVoxels.ph());
-          } else {
-            body = GridUtils.fit(GridUtils.largestConnected(indexGrid, i -> i > 0, 0), i -> i > 0)
-                .map(i -> i == 0
-                    ? ReactiveVoxels.none()
-                    : availableVoxels.get(i - 1).get());
-          }
-          return () -> new ReactiveGridVSR(body);
+          Grid<ReactiveGridVSR.ReactiveVoxel> body = toReactiveBody(canonicalIndexGrid, availableVoxels);
+          Optional<BodyKey> phenotypeKey = canonicalIndexGrid.map(Mappers::bodyKey);
+          return new KeyedSupplier<>(new SolutionKey(mapperId, phenotypeKey), () -> new ReactiveGridVSR(body));
         },
-        supplier -> NamedMultivariateRealFunction.from(
-            MultivariateRealFunction.from(vs -> vs, 2, availableVoxels.size()),
-            List.of("x", "y"),
-            MultivariateRealFunction.varNames("v", availableVoxels.size())),
-        "nmrfToReactiveGridVsr[w=%d;h=%d]".formatted(w, h)));
+        supplier -> beforeM.exampleFor(exampleNmrf),
+        "%s→nmrfToReactiveGridVsr[w=%d;h=%d]".formatted(beforeM, w, h));
+  }
+
+  private static boolean overwriteBrains(NumMultiBrained agent, NumericalDynamicalSystem<?> source) {
+    // only parametrized brains can be overwritten
+    Optional<NumericalParametrized> oSourceParametrized = Composed.shallowest(source, NumericalParametrized.class);
+    if (oSourceParametrized.isEmpty()
+        || agent.brains().stream()
+            .anyMatch(b -> Composed.shallowest(b, NumericalParametrized.class).isEmpty())) {
+      return false;
+    }
+    double[] params = (double[]) oSourceParametrized.get().getParams();
+    for (NumericalDynamicalSystem<?> brain : agent.brains()) {
+      setParams(brain, params.clone());
+      brain.reset();
+    }
+    return true;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void setParams(NumericalDynamicalSystem<?> brain, double[] params) {
+    ((NumericalParametrized) Composed.shallowest(brain, NumericalParametrized.class)
+            .orElseThrow())
+        .setParams(params);
+  }
+
+  // agents are deep copies of the target, if it is serializable, or are built again from its description otherwise
+  @SuppressWarnings("unchecked")
+  private static <T> Supplier<T> targets(T target, ParamMap map, NamedBuilder<?> builder) {
+    NamedParamMap targetMap = (NamedParamMap) map.value("target", ParamMap.Type.NAMED_PARAM_MAP);
+    return Prototype.of(target).<Supplier<T>>map(p -> p).orElse(() -> (T) builder.build(targetMap));
+  }
+
+  private static Grid<ReactiveGridVSR.ReactiveVoxel> toReactiveBody(
+      Optional<Grid<Integer>> indexGrid, List<Supplier<ReactiveGridVSR.ReactiveVoxel>> availableVoxels) {
+    return indexGrid
+        .map(g -> g.map(i -> i == 0 ? ReactiveVoxels.none() : availableVoxels.get(i - 1).get()))
+        .orElseGet(() -> Grid.create(1, 1, ReactiveVoxels.ph()));
   }
 }
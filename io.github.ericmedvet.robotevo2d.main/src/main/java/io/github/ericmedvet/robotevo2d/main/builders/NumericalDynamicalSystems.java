@@ -28,6 +28,7 @@ import io.github.ericmedvet.jsdynsym.core.StatelessSystem;
 import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
 import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
 import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.IOSaver;
+import io.github.ericmedvet.robotevo2d.main.dynamicalsystems.SharedWeightsMLP;
 
 @Discoverable(prefixTemplate = "evorobots|er.dynamicalSystem|dynSys|ds.numerical|num")
 public class NumericalDynamicalSystems {
@@ -43,8 +44,34 @@ public class NumericalDynamicalSystems {
               io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems.Builder<
                       ? extends NumericalDynamicalSystem<S>, S>
                   inner,
-          @Param("filePath") String filePath) {
-    return (xVarNames, yVarNames) -> new IOSaver<>(inner.apply(xVarNames, yVarNames), filePath, initT, finalT);
+          @Param("filePath") String filePath,
+          @Param(value = "format", dS = "csv") IOSaver.Format format,
+          @Param(value = "async", dB = false) boolean async,
+          @Param(value = "bufferSize", dI = 4096) int bufferSize,
+          @Param(value = "backpressure", dS = "block") IOSaver.Backpressure backpressure,
+          @Param(value = "sharded", dB = false) boolean sharded,
+          @Param(value = "mergeOnExit", dB = true) boolean mergeOnExit,
+          @Param(value = "summarize", dB = false) boolean summarize,
+          @Param(value = "decimation", dI = 0) int decimation,
+          @Param(value = "nOfBins", dI = 10) int nOfBins,
+          @Param(value = "binMin", dD = -1d) double binMin,
+          @Param(value = "binMax", dD = 1d) double binMax) {
+    IOSaver.Settings settings = new IOSaver.Settings(
+        format,
+        async,
+        bufferSize,
+        backpressure,
+        sharded,
+        mergeOnExit,
+        summarize,
+        decimation,
+        nOfBins,
+        binMin,
+        binMax);
+    // one session for each build, i.e., for each run: a further run on the same file path overwrites it
+    IOSaver.Session session = new IOSaver.Session();
+    return (xVarNames, yVarNames) ->
+        new IOSaver<>(inner.apply(xVarNames, yVarNames), filePath, initT, finalT, settings, session);
   }
 
   @SuppressWarnings("unused")
@@ -58,6 +85,19 @@ public class NumericalDynamicalSystems {
         new OperatorGraph(OperatorGraph.sampleFor(xVarNames, yVarNames), xVarNames, yVarNames, postOperator);
   }
 
+  @SuppressWarnings("unused")
+  public static io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems.Builder<
+          SharedWeightsMLP, StatelessSystem.State>
+      sharedMlp(
+          @Param(value = "innerLayerRatio", dD = 0.65d) double innerLayerRatio,
+          @Param(value = "nOfInnerLayers", dI = 1) int nOfInnerLayers,
+          @Param(value = "activationFunction", dS = "tanh")
+              MultiLayerPerceptron.ActivationFunction activationFunction) {
+    return (xVarNames, yVarNames) -> new SharedWeightsMLP(
+        activationFunction,
+        SharedWeightsMLP.neurons(xVarNames.size(), innerLayerRatio, nOfInnerLayers, yVarNames.size()));
+  }
+
   @SuppressWarnings("unused")
   public static io.github.ericmedvet.jsdynsym.buildable.builders.NumericalDynamicalSystems.Builder<
           NamedMultivariateRealFunction, StatelessSystem.State>
@@ -25,11 +25,18 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.viewer.Drawer;
 import io.github.ericmedvet.mrsim2d.viewer.FramesImageBuilder;
 import io.github.ericmedvet.mrsim2d.viewer.RealtimeViewer;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectorySnapshot;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryWriter;
+import io.github.ericmedvet.robotevo2d.main.util.AsyncConsumer;
+import io.github.ericmedvet.robotevo2d.main.util.StreamingVideoBuilder;
+import io.github.ericmedvet.robotevo2d.main.util.VideoWriter;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 import javax.imageio.ImageIO;
 
@@ -78,7 +85,9 @@ public class PlayConsumers {
       @Param(value = "nOfFrames", dI = 5) int nOfFrames,
       @Param(value = "deltaT", dD = 0.2) double deltaT,
       @Param(value = "startTime", dD = 0) double startTime,
-      @Param("filePath") String filePath) {
+      @Param("filePath") String filePath,
+      @Param(value = "async", dB = false) boolean async,
+      @Param(value = "queueSize", dI = 4) int queueSize) {
     FramesImageBuilder framesImageBuilder = new FramesImageBuilder(
         w,
         h,
@@ -88,16 +97,35 @@ public class PlayConsumers {
         FramesImageBuilder.Direction.HORIZONTAL,
         true,
         drawer.apply(title == null ? "" : title));
-    return ProducingConsumer.from(framesImageBuilder, () -> {
-      BufferedImage bufferedImage = framesImageBuilder.get();
-      try {
-        File file = io.github.ericmedvet.jgea.core.util.Misc.robustGetFile(filePath);
-        ImageIO.write(bufferedImage, "png", file);
-        L.info("Image done and saved on file %s".formatted(file.getAbsolutePath()));
-      } catch (IOException e) {
-        L.warning("Could not save image file due to: %");
-      }
-    });
+    // bodies in snapshots are live engine objects, hence, if async, an immutable copy of each frame is taken here and
+    // drawn on another thread
+    AsyncConsumer<Snapshot> asyncConsumer = async
+        ? new AsyncConsumer<>(framesImageBuilder, "frames-renderer[%s]".formatted(filePath), queueSize)
+        : null;
+    Predicate<Snapshot> framesFilter = timeGrid(deltaT, startTime, Double.POSITIVE_INFINITY, nOfFrames);
+    return ProducingConsumer.from(
+        s -> {
+          if (framesFilter.test(s)) {
+            if (asyncConsumer != null) {
+              asyncConsumer.accept(TrajectorySnapshot.of(s));
+            } else {
+              framesImageBuilder.accept(s);
+            }
+          }
+        },
+        () -> {
+          if (asyncConsumer != null) {
+            asyncConsumer.close();
+          }
+          BufferedImage bufferedImage = framesImageBuilder.get();
+          try {
+            File file = io.github.ericmedvet.jgea.core.util.Misc.robustGetFile(filePath);
+            ImageIO.write(bufferedImage, "png", file);
+            L.info("Image done and saved on file %s".formatted(file.getAbsolutePath()));
+          } catch (IOException e) {
+            L.warning("Could not save image file due to: %s".formatted(e));
+          }
+        });
   }
 
   @SuppressWarnings("unused")
@@ -108,4 +136,125 @@ public class PlayConsumers {
     return ProducingConsumer.from(
         new RealtimeViewer(frameRate, drawer.apply(title == null ? "" : title)), () -> {});
   }
+
+  @SuppressWarnings("unused")
+  public static ProducingConsumer sampled(
+      @Param("of") ProducingConsumer consumer,
+      @Param(value = "dT", dD = 0) double dT,
+      @Param(value = "startTime", dD = 0) double startTime,
+      @Param(value = "endTime", dD = Double.POSITIVE_INFINITY) double endTime) {
+    Predicate<Snapshot> predicate = timeGrid(dT, startTime, endTime, Integer.MAX_VALUE);
+    return ProducingConsumer.from(
+        s -> {
+          if (predicate.test(s)) {
+            consumer.accept(s);
+          }
+        },
+        consumer);
+  }
+
+  // lets through at most maxNOfPassed snapshots, one for each point of a grid on simulated time, with step dT
+  private static Predicate<Snapshot> timeGrid(double dT, double startTime, double endTime, int maxNOfPassed) {
+    return new Predicate<>() {
+      private long nextIndex = 0;
+      private int nOfPassed = 0;
+
+      @Override
+      public boolean test(Snapshot snapshot) {
+        if (nOfPassed >= maxNOfPassed || snapshot.t() < startTime || snapshot.t() > endTime) {
+          return false;
+        }
+        if (dT > 0) {
+          if (snapshot.t() < startTime + nextIndex * dT) {
+            return false;
+          }
+          // the grid is on simulated time: coarser simulations skip grid points rather than bursting
+          nextIndex = (long) Math.floor((snapshot.t() - startTime) / dT) + 1;
+        }
+        nOfPassed = nOfPassed + 1;
+        return true;
+      }
+    };
+  }
+
+  @SuppressWarnings("unused")
+  public static ProducingConsumer trajectory(
+      @Param("filePath") String filePath,
+      @Param(value = "dT", dD = 0.05) double dT,
+      @Param(value = "startTime", dD = 0) double startTime,
+      @Param(value = "endTime", dD = Double.POSITIVE_INFINITY) double endTime) {
+    TrajectoryWriter[] writer = new TrajectoryWriter[1];
+    File[] file = new File[1];
+    boolean[] failed = new boolean[1];
+    ProducingConsumer recorder = ProducingConsumer.from(
+        s -> {
+          if (failed[0]) {
+            return;
+          }
+          try {
+            if (writer[0] == null) {
+              file[0] = io.github.ericmedvet.jgea.core.util.Misc.robustGetFile(filePath);
+              writer[0] = new TrajectoryWriter(file[0].toPath());
+            }
+            writer[0].write(s);
+          } catch (IOException e) {
+            L.warning("Could not record trajectory due to: %s".formatted(e));
+            failed[0] = true;
+          }
+        },
+        () -> {
+          if (writer[0] != null) {
+            try {
+              writer[0].close();
+              L.info("Trajectory with %d steps saved on file %s"
+                  .formatted(writer[0].nOfSteps(), file[0].getAbsolutePath()));
+            } catch (IOException e) {
+              L.warning("Could not close trajectory file due to: %s".formatted(e));
+            }
+          }
+          writer[0] = null;
+          failed[0] = false;
+        });
+    return sampled(recorder, dT, startTime, endTime);
+  }
+
+  @SuppressWarnings("unused")
+  public static ProducingConsumer video(
+      @Param("title") String title,
+      @Param(value = "drawer", dNPM = "sim.drawer()") Function<String, Drawer> drawer,
+      @Param(value = "w", dI = 600) int w,
+      @Param(value = "h", dI = 400) int h,
+      @Param(value = "frameRate", dD = 30) double frameRate,
+      @Param(value = "startTime", dD = 0) double startTime,
+      @Param(value = "endTime", dD = Double.POSITIVE_INFINITY) double endTime,
+      @Param("filePath") String filePath,
+      @Param(value = "encoder", dS = "auto") VideoWriter.Encoder encoder,
+      @Param(value = "ffmpegPath", dS = "ffmpeg") String ffmpegPath) {
+    File[] file = new File[1];
+    StreamingVideoBuilder streamingVideoBuilder = new StreamingVideoBuilder(
+        () -> {
+          try {
+            VideoWriter.Encoder resolvedEncoder = VideoWriter.resolve(encoder, ffmpegPath);
+            file[0] = io.github.ericmedvet.jgea.core.util.Misc.robustGetFile(VideoWriter.filePath(
+                    resolvedEncoder, Path.of(filePath))
+                .toString());
+            return VideoWriter.of(resolvedEncoder, file[0].toPath(), w, h, frameRate, ffmpegPath);
+          } catch (IOException e) {
+            L.warning("Could not open video file due to: %s".formatted(e));
+            return null;
+          }
+        },
+        w,
+        h,
+        frameRate,
+        startTime,
+        endTime,
+        drawer.apply(title == null ? "" : title));
+    return ProducingConsumer.from(streamingVideoBuilder, () -> {
+      int nOfFrames = streamingVideoBuilder.close();
+      if (nOfFrames > 0) {
+        L.info("Video done with %d frames and saved on file %s".formatted(nOfFrames, file[0].getAbsolutePath()));
+      }
+    });
+  }
 }
@@ -0,0 +1,81 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.builders;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.robotevo2d.main.tasks.StoppingCriterion;
+import io.github.ericmedvet.robotevo2d.main.tasks.VelocityBoundCriterion;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Predicate;
+
+@Discoverable(prefixTemplate = "evorobots|er.stoppingCriterion|sc")
+public class StoppingCriteria {
+
+  private StoppingCriteria() {}
+
+  @SuppressWarnings("unused")
+  public static StoppingCriterion energy(@Param(value = "maxEnergy", dD = 100d) double maxEnergy) {
+    return () -> p -> p.energy() > maxEnergy;
+  }
+
+  @SuppressWarnings("unused")
+  public static StoppingCriterion stall(
+      @Param(value = "window", dD = 5d) double window, @Param(value = "minDistance", dD = 1d) double minDistance) {
+    return () -> new Predicate<>() {
+      private final Deque<StoppingCriterion.Progress> history = new ArrayDeque<>();
+
+      @Override
+      public boolean test(StoppingCriterion.Progress progress) {
+        history.addLast(progress);
+        // keep only the oldest progress which is at least window old
+        while (history.size() > 2) {
+          StoppingCriterion.Progress oldest = history.pollFirst();
+          if (progress.t() - history.getFirst().t() < window) {
+            history.addFirst(oldest);
+            break;
+          }
+        }
+        StoppingCriterion.Progress oldest = history.getFirst();
+        return progress.t() - oldest.t() >= window
+            && Math.hypot(progress.x() - oldest.x(), progress.y() - oldest.y()) < minDistance;
+      }
+    };
+  }
+
+  @SuppressWarnings("unused")
+  public static StoppingCriterion velocityBound(
+      @Param("duration") double duration,
+      @Param(value = "maxVelocity", dD = 5d) double maxVelocity,
+      @Param(value = "threshold", dD = 0d) double threshold) {
+    return VelocityBoundCriterion.fixed(duration, maxVelocity, threshold);
+  }
+
+  @SuppressWarnings("unused")
+  public static StoppingCriterion velocityPercentileBound(
+      @Param("duration") double duration,
+      @Param(value = "maxVelocity", dD = 5d) double maxVelocity,
+      @Param(value = "percentile", dD = 0.25d) double percentile,
+      @Param(value = "size", dI = 100) int size) {
+    return VelocityBoundCriterion.percentile(duration, maxVelocity, percentile, size);
+  }
+}
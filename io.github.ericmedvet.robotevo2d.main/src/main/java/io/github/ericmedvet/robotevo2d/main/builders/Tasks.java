@@ -0,0 +1,73 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.builders;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.robotevo2d.main.tasks.EarlyStoppingTask;
+import io.github.ericmedvet.robotevo2d.main.tasks.MemoizedTask;
+import io.github.ericmedvet.robotevo2d.main.tasks.PoolingTask;
+import io.github.ericmedvet.robotevo2d.main.tasks.RecordingTask;
+import io.github.ericmedvet.robotevo2d.main.tasks.StoppingCriterion;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryStore;
+import java.util.List;
+import java.util.function.Function;
+
+@Discoverable(prefixTemplate = "evorobots|er.task|t")
+public class Tasks {
+
+  private Tasks() {}
+
+  @SuppressWarnings("unused")
+  public static <A, S extends AgentsObservation, O extends AgentsOutcome<S>> Task<A, S, O> earlyStopped(
+      @Param("inner") Task<A, S, O> inner,
+      @Param("criteria") List<StoppingCriterion> criteria,
+      @Param(value = "minT", dD = 2d) double minT) {
+    return new EarlyStoppingTask<>(inner, criteria, minT);
+  }
+
+  @SuppressWarnings("unused")
+  public static <A, S extends AgentsObservation, O extends AgentsOutcome<S>> Task<A, S, O> memoized(
+      // inner has to be deterministic, with a deterministic engine: a reused outcome is the one of the first simulation
+      @Param("inner") Task<A, S, O> inner, @Param(value = "size", dI = 10000) int size) {
+    return new MemoizedTask<>(inner, size);
+  }
+
+  @SuppressWarnings("unused")
+  public static <A, S extends AgentsObservation, O extends AgentsOutcome<S>> Task<A, S, O> pooled(
+      @Param("inner") Task<A, S, O> inner) {
+    return new PoolingTask<>(inner);
+  }
+
+  @SuppressWarnings("unused")
+  public static <A, S extends AgentsObservation, O extends AgentsOutcome<S>> Task<A, S, O> recorded(
+      @Param("inner") Task<A, S, O> inner,
+      @Param(value = "store", dS = "best") String storeName,
+      @Param(value = "size", dI = 10) int size,
+      @Param("score") Function<? super O, ? extends Number> scoreFunction,
+      @Param(value = "maximize", dB = true) boolean maximize,
+      @Param(value = "dT", dD = 1d / 30d) double dT) {
+    return new RecordingTask<>(inner, TrajectoryStore.create(storeName, size), scoreFunction, maximize, dT);
+  }
+}
@@ -0,0 +1,148 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.io.IOException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+class AsyncRowWriter implements RowWriter {
+
+  private static final Logger L = Logger.getLogger(AsyncRowWriter.class.getName());
+
+  private final RowWriter inner;
+  private final double[][] rows;
+  private final IOSaver.Backpressure backpressure;
+  private final ReentrantLock lock;
+  private final Condition notEmpty;
+  private final Condition notFull;
+  private final Thread thread;
+  private long head;
+  private long tail;
+  private long nOfDropped;
+  private boolean closed;
+
+  AsyncRowWriter(RowWriter inner, String name, int rowLength, int capacity, IOSaver.Backpressure backpressure) {
+    this.inner = inner;
+    this.backpressure = backpressure;
+    rows = new double[capacity][rowLength];
+    lock = new ReentrantLock();
+    notEmpty = lock.newCondition();
+    notFull = lock.newCondition();
+    thread = new Thread(this::drain, "io-saver-writer[%s]".formatted(name));
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void close() throws IOException {
+    lock.lock();
+    try {
+      closed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    lock.lock();
+    try {
+      if (nOfDropped > 0) {
+        L.warning("%d rows dropped because the buffer was full".formatted(nOfDropped));
+      }
+    } finally {
+      lock.unlock();
+    }
+    inner.close();
+  }
+
+  private void drain() {
+    while (true) {
+      long from;
+      long to;
+      lock.lock();
+      try {
+        while (head == tail && !closed) {
+          notEmpty.awaitUninterruptibly();
+        }
+        if (head == tail) {
+          return;
+        }
+        from = tail;
+        to = head;
+      } finally {
+        lock.unlock();
+      }
+      // rows in [from,to) are not overwritten by producers until tail is moved forward
+      try {
+        for (long i = from; i < to; i++) {
+          inner.write(rows[(int) (i % rows.length)]);
+        }
+        inner.flush();
+      } catch (IOException e) {
+        L.warning("Cannot write rows due to %s".formatted(e));
+      }
+      lock.lock();
+      try {
+        tail = to;
+        notFull.signalAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  @Override
+  public void flush() {
+    lock.lock();
+    try {
+      while (head != tail && !closed) {
+        notFull.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void write(double[] row) {
+    lock.lock();
+    try {
+      while (closed || head - tail == rows.length) {
+        if (closed || backpressure.equals(IOSaver.Backpressure.DROP)) {
+          nOfDropped = nOfDropped + 1;
+          return;
+        }
+        notFull.awaitUninterruptibly();
+      }
+      System.arraycopy(row, 0, rows[(int) (head % rows.length)], 0, row.length);
+      head = head + 1;
+      notEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
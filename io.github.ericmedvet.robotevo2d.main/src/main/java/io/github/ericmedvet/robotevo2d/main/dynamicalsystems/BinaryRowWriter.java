@@ -0,0 +1,169 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+class BinaryRowWriter implements RowWriter {
+
+  static final int MAGIC = 0x494F5342; // IOSB
+  static final int VERSION = 1;
+  static final int FIXED_HEADER_SIZE = 32;
+  static final int N_OF_ROWS_POSITION = 16;
+  static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final ByteBuffer nOfRowsBuffer;
+  private final boolean singlePrecision;
+  private long nOfRows;
+
+  BinaryRowWriter(String filePath, List<String> header, boolean singlePrecision, boolean append)
+      throws IOException {
+    this.singlePrecision = singlePrecision;
+    int rowSize = header.size() * (singlePrecision ? Float.BYTES : Double.BYTES);
+    buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, rowSize)).order(BYTE_ORDER);
+    nOfRowsBuffer = ByteBuffer.allocate(Long.BYTES).order(BYTE_ORDER);
+    if (append) {
+      // the file has to have the same columns, and rows are appended after the last complete one
+      long dataOffset;
+      try (BinaryTraceReader reader = new BinaryTraceReader(Path.of(filePath))) {
+        if (reader.bytesPerValue() != (singlePrecision ? Float.BYTES : Double.BYTES)
+            || !reader.names().equals(header)) {
+          throw new IOException("Cannot append on %s: file has columns %s with %d bytes per value, not %s with %d"
+              .formatted(
+                  filePath,
+                  reader.names(),
+                  reader.bytesPerValue(),
+                  header,
+                  singlePrecision ? Float.BYTES : Double.BYTES));
+        }
+        nOfRows = reader.nOfRows();
+        dataOffset = reader.dataOffset();
+      }
+      channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ, StandardOpenOption.WRITE);
+      channel.truncate(dataOffset + nOfRows * rowSize);
+      channel.position(channel.size());
+      writeNOfRows();
+      return;
+    }
+    channel = FileChannel.open(
+        Path.of(filePath),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    // header: magic, version, bytes per value, n of columns, n of rows, data offset, names
+    List<byte[]> names =
+        header.stream().map(s -> s.getBytes(StandardCharsets.UTF_8)).toList();
+    int namesSize = names.stream().mapToInt(bs -> Integer.BYTES + bs.length).sum();
+    int dataOffset = FIXED_HEADER_SIZE + namesSize;
+    dataOffset = dataOffset + (Long.BYTES - dataOffset % Long.BYTES) % Long.BYTES;
+    ByteBuffer headerBuffer = ByteBuffer.allocate(dataOffset).order(BYTE_ORDER);
+    headerBuffer
+        .putInt(MAGIC)
+        .putInt(VERSION)
+        .putInt(singlePrecision ? Float.BYTES : Double.BYTES)
+        .putInt(header.size())
+        .putLong(0)
+        .putLong(dataOffset);
+    names.forEach(bs -> headerBuffer.putInt(bs.length).put(bs));
+    headerBuffer.rewind();
+    while (headerBuffer.hasRemaining()) {
+      channel.write(headerBuffer);
+    }
+  }
+
+  static boolean isBinary(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer magicBuffer = ByteBuffer.allocate(Integer.BYTES).order(BYTE_ORDER);
+      while (magicBuffer.hasRemaining()) {
+        if (channel.read(magicBuffer) < 0) {
+          return false;
+        }
+      }
+      return magicBuffer.flip().getInt() == MAGIC;
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    flush();
+    channel.close();
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    buffer.flip();
+    boolean written = buffer.hasRemaining();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+    // the header is kept consistent with the written rows, in case the writer is never closed
+    if (written) {
+      writeNOfRows();
+    }
+  }
+
+  synchronized void transferFrom(FileChannel source, long position, long nOfBytes, long nOfSourceRows)
+      throws IOException {
+    flush();
+    long transferred = 0;
+    while (transferred < nOfBytes) {
+      transferred = transferred + source.transferTo(position + transferred, nOfBytes - transferred, channel);
+    }
+    nOfRows = nOfRows + nOfSourceRows;
+    writeNOfRows();
+  }
+
+  @Override
+  public synchronized void write(double[] row) throws IOException {
+    if (buffer.remaining() < row.length * (singlePrecision ? Float.BYTES : Double.BYTES)) {
+      flush();
+    }
+    if (singlePrecision) {
+      for (double v : row) {
+        buffer.putFloat((float) v);
+      }
+    } else {
+      for (double v : row) {
+        buffer.putDouble(v);
+      }
+    }
+    nOfRows = nOfRows + 1;
+  }
+
+  private void writeNOfRows() throws IOException {
+    nOfRowsBuffer.clear();
+    nOfRowsBuffer.putLong(nOfRows).flip();
+    while (nOfRowsBuffer.hasRemaining()) {
+      channel.write(nOfRowsBuffer, N_OF_ROWS_POSITION + nOfRowsBuffer.position());
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+
+public class BinaryTraceReader implements Closeable {
+
+  private final FileChannel channel;
+  private final List<String> names;
+  private final int bytesPerValue;
+  private final long nOfRows;
+  private final long dataOffset;
+  private final long rowsPerChunk;
+  private final MappedByteBuffer[] chunks;
+
+  public BinaryTraceReader(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    ByteBuffer fixedHeader = read(0, BinaryRowWriter.FIXED_HEADER_SIZE);
+    if (fixedHeader.getInt() != BinaryRowWriter.MAGIC) {
+      channel.close();
+      throw new IOException("Not an IOSaver binary file: %s".formatted(path));
+    }
+    int version = fixedHeader.getInt();
+    if (version != BinaryRowWriter.VERSION) {
+      channel.close();
+      throw new IOException("Unsupported version %d of file %s".formatted(version, path));
+    }
+    bytesPerValue = fixedHeader.getInt();
+    int nOfColumns = fixedHeader.getInt();
+    long headerNOfRows = fixedHeader.getLong();
+    dataOffset = fixedHeader.getLong();
+    ByteBuffer namesBuffer = read(
+        BinaryRowWriter.FIXED_HEADER_SIZE, (int) (dataOffset - BinaryRowWriter.FIXED_HEADER_SIZE));
+    List<String> localNames = new ArrayList<>(nOfColumns);
+    for (int i = 0; i < nOfColumns; i++) {
+      byte[] bs = new byte[namesBuffer.getInt()];
+      namesBuffer.get(bs);
+      localNames.add(new String(bs, StandardCharsets.UTF_8));
+    }
+    names = Collections.unmodifiableList(localNames);
+    // map in chunks, each of an integer number of rows, since a single mapping cannot exceed 2GB
+    long rowSize = (long) nOfColumns * bytesPerValue;
+    // the rows are the complete ones in the file, since the header is not up to date if the writer did not close it
+    nOfRows = rowSize == 0 ? headerNOfRows : (channel.size() - dataOffset) / rowSize;
+    rowsPerChunk = Math.max(1, Integer.MAX_VALUE / Math.max(1, rowSize));
+    int nOfChunks = (int) ((nOfRows + rowsPerChunk - 1) / rowsPerChunk);
+    chunks = new MappedByteBuffer[nOfChunks];
+    for (int i = 0; i < nOfChunks; i++) {
+      long firstRow = i * rowsPerChunk;
+      long chunkRows = Math.min(rowsPerChunk, nOfRows - firstRow);
+      chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + firstRow * rowSize, chunkRows * rowSize);
+      chunks[i].order(BinaryRowWriter.BYTE_ORDER);
+    }
+  }
+
+  public class Column {
+    private final int index;
+
+    private Column(int index) {
+      this.index = index;
+    }
+
+    public double get(long row) {
+      return BinaryTraceReader.this.get(row, index);
+    }
+
+    public String name() {
+      return names.get(index);
+    }
+
+    public long size() {
+      return nOfRows;
+    }
+
+    public DoubleStream stream() {
+      return LongStream.range(0, nOfRows).mapToDouble(this::get);
+    }
+  }
+
+  int bytesPerValue() {
+    return bytesPerValue;
+  }
+
+  FileChannel channel() {
+    return channel;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  public Column column(int index) {
+    if (index < 0 || index >= names.size()) {
+      throw new IndexOutOfBoundsException(
+          "Wrong column index %d: %d columns available".formatted(index, names.size()));
+    }
+    return new Column(index);
+  }
+
+  public Column column(String name) {
+    int index = names.indexOf(name);
+    if (index < 0) {
+      throw new IllegalArgumentException("No column named %s: available are %s".formatted(name, names));
+    }
+    return new Column(index);
+  }
+
+  long dataOffset() {
+    return dataOffset;
+  }
+
+  public double get(long row, int column) {
+    if (row < 0 || row >= nOfRows) {
+      throw new IndexOutOfBoundsException("Wrong row index %d: %d rows available".formatted(row, nOfRows));
+    }
+    MappedByteBuffer chunk = chunks[(int) (row / rowsPerChunk)];
+    int offset = (int) ((row % rowsPerChunk) * names.size() + column) * bytesPerValue;
+    return bytesPerValue == Float.BYTES ? chunk.getFloat(offset) : chunk.getDouble(offset);
+  }
+
+  public List<String> names() {
+    return names;
+  }
+
+  public long nOfRows() {
+    return nOfRows;
+  }
+
+  private ByteBuffer read(long position, int size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(BinaryRowWriter.BYTE_ORDER);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of file while reading header");
+      }
+    }
+    return buffer.flip();
+  }
+}
@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+class CsvRowWriter implements RowWriter {
+
+  private static final char DELIMITER = ';';
+
+  private final Writer writer;
+  private final CSVPrinter printer;
+  private final String recordSeparator;
+  private final StringBuilder sb;
+  private char[] chars;
+
+  CsvRowWriter(String filePath, List<String> header, boolean append) throws IOException {
+    writer = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(filePath, append), StandardCharsets.UTF_8));
+    CSVFormat format = CSVFormat.Builder.create().setDelimiter(DELIMITER).build();
+    printer = new CSVPrinter(writer, format);
+    recordSeparator = format.getRecordSeparator();
+    sb = new StringBuilder();
+    chars = new char[0];
+    if (!append) {
+      printer.printRecord(header);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    printer.close(true);
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    printer.flush();
+  }
+
+  @Override
+  public synchronized void write(double[] row) throws IOException {
+    // numbers are never quoted, hence the row is formatted in a reused buffer, without boxing the values
+    sb.setLength(0);
+    for (int i = 0; i < row.length; i = i + 1) {
+      if (i > 0) {
+        sb.append(DELIMITER);
+      }
+      sb.append(row[i]);
+    }
+    sb.append(recordSeparator);
+    if (chars.length < sb.length()) {
+      chars = new char[sb.length()];
+    }
+    sb.getChars(0, sb.length(), chars, 0);
+    writer.write(chars, 0, sb.length());
+  }
+}
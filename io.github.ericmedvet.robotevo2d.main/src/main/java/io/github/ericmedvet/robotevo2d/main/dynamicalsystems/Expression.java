@@ -0,0 +1,115 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+public sealed interface Expression {
+
+  double evaluate(double[] input);
+
+  record Call(ToDoubleFunction<double[]> function, List<Expression> args) implements Expression {
+    @Override
+    public double evaluate(double[] input) {
+      double[] values = new double[args.size()];
+      for (int i = 0; i < values.length; i = i + 1) {
+        values[i] = args.get(i).evaluate(input);
+      }
+      return function.applyAsDouble(values);
+    }
+  }
+
+  record Constant(double value) implements Expression {
+    @Override
+    public double evaluate(double[] input) {
+      return value;
+    }
+  }
+
+  record Input(int index) implements Expression {
+    @Override
+    public double evaluate(double[] input) {
+      return input[index];
+    }
+  }
+
+  record Operation(Operator operator, List<Expression> args) implements Expression {
+    public Operation {
+      if (args.size() != operator.arity()) {
+        throw new IllegalArgumentException(
+            "Wrong number of args for %s: %d expected, %d found".formatted(operator, operator.arity(), args.size()));
+      }
+    }
+
+    @Override
+    public double evaluate(double[] input) {
+      double[] values = new double[args.size()];
+      for (int i = 0; i < values.length; i = i + 1) {
+        values[i] = args.get(i).evaluate(input);
+      }
+      return operator.apply(values);
+    }
+  }
+
+  // operators which are compiled to plain bytecode instructions or to calls of the static methods of Math
+  enum Operator {
+    ADD(2),
+    SUBTRACT(2),
+    MULTIPLY(2),
+    DIVIDE(2),
+    OPPOSITE(1),
+    INVERSE(1),
+    SQUARE(1),
+    SQRT(1),
+    LOG(1),
+    EXP(1),
+    SIN(1),
+    COS(1);
+
+    private final int arity;
+
+    Operator(int arity) {
+      this.arity = arity;
+    }
+
+    public double apply(double[] args) {
+      return switch (this) {
+        case ADD -> args[0] + args[1];
+        case SUBTRACT -> args[0] - args[1];
+        case MULTIPLY -> args[0] * args[1];
+        case DIVIDE -> args[0] / args[1];
+        case OPPOSITE -> 0d - args[0];
+        case INVERSE -> 1d / args[0];
+        case SQUARE -> Math.pow(args[0], 2d);
+        case SQRT -> Math.sqrt(args[0]);
+        case LOG -> Math.log(args[0]);
+        case EXP -> Math.exp(args[0]);
+        case SIN -> Math.sin(args[0]);
+        case COS -> Math.cos(args[0]);
+      };
+    }
+
+    public int arity() {
+      return arity;
+    }
+  }
+}
@@ -0,0 +1,410 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+// translates expressions to the bytecode of a hidden class doing straight-line double arithmetic, where equal
+// subexpressions are computed once; operations are plain double instructions or calls to Math, while the other
+// functions are invoked through final fields, so that the JIT can inline them
+public class ExpressionCompiler {
+
+  private static final int MAX_CODE_LENGTH = 65535;
+  private static final int MAX_CONSTANT_POOL_COUNT = 65535;
+  private static final int MAX_LOCALS = 65535;
+  private static final String CLASS_NAME =
+      ExpressionCompiler.class.getPackageName().replace('.', '/') + "/CompiledExpressions";
+  private static final String INTERFACE_NAME = CompiledFunction.class.getName().replace('.', '/');
+  private static final String FUNCTION_DESCRIPTOR = "Ljava/util/function/ToDoubleFunction;";
+  private static final String POST_OPERATOR_DESCRIPTOR = "Ljava/util/function/DoubleUnaryOperator;";
+
+  private ExpressionCompiler() {}
+
+  public interface CompiledFunction {
+    void apply(double[] input, double[] output);
+  }
+
+  private record OperationKey(Expression.Operator operator, List<Integer> argSlots) {}
+
+  private record CallKey(ToDoubleFunction<double[]> function, List<Integer> argSlots) {
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CallKey other && function == other.function && argSlots.equals(other.argSlots);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(function) + argSlots.hashCode();
+    }
+  }
+
+  private static class ConstantPool {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<List<Object>, Integer> indexes = new HashMap<>();
+    private int count = 1;
+
+    private int add(List<Object> key, int size, IOConsumer writer) {
+      Integer index = indexes.get(key);
+      if (index != null) {
+        return index;
+      }
+      try {
+        writer.accept(out);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      index = count;
+      count = count + size;
+      indexes.put(key, index);
+      return index;
+    }
+
+    private int classRef(String internalName) {
+      int nameIndex = utf8(internalName);
+      return add(List.of("class", internalName), 1, o -> {
+        o.writeByte(7);
+        o.writeShort(nameIndex);
+      });
+    }
+
+    private int doubleValue(double value) {
+      // keyed on the bits, so that, e.g., 0 and -0 are different constants
+      return add(List.of("double", Double.doubleToRawLongBits(value)), 2, o -> {
+        o.writeByte(6);
+        o.writeLong(Double.doubleToRawLongBits(value));
+      });
+    }
+
+    private int member(int tag, String owner, String name, String descriptor) {
+      int classIndex = classRef(owner);
+      int nameIndex = utf8(name);
+      int descriptorIndex = utf8(descriptor);
+      int nameAndTypeIndex = add(List.of("nameAndType", name, descriptor), 1, o -> {
+        o.writeByte(12);
+        o.writeShort(nameIndex);
+        o.writeShort(descriptorIndex);
+      });
+      return add(List.of(tag, owner, name, descriptor), 1, o -> {
+        o.writeByte(tag);
+        o.writeShort(classIndex);
+        o.writeShort(nameAndTypeIndex);
+      });
+    }
+
+    private int utf8(String s) {
+      return add(List.of("utf8", s), 1, o -> {
+        o.writeByte(1);
+        o.writeUTF(s);
+      });
+    }
+  }
+
+  @FunctionalInterface
+  private interface IOConsumer {
+    void accept(DataOutputStream out) throws IOException;
+  }
+
+  private static class Code {
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private void u1(int value) {
+      bytes.write(value);
+    }
+
+    private void u2(int value) {
+      bytes.write(value >>> 8);
+      bytes.write(value);
+    }
+
+    private void pushInt(int value) {
+      if (value <= 5) {
+        u1(0x03 + value); // iconst_<n>
+      } else if (value <= Byte.MAX_VALUE) {
+        u1(0x10); // bipush
+        u1(value);
+      } else {
+        u1(0x11); // sipush
+        u2(value);
+      }
+    }
+
+    private void local(int opcode, int slot) {
+      if (slot <= 255) {
+        u1(opcode);
+        u1(slot);
+      } else {
+        u1(0xc4); // wide
+        u1(opcode);
+        u2(slot);
+      }
+    }
+
+    private int length() {
+      return bytes.size();
+    }
+  }
+
+  public static CompiledFunction compile(List<Expression> outputs, DoubleUnaryOperator postOperator) {
+    ConstantPool pool = new ConstantPool();
+    int thisIndex = pool.classRef(CLASS_NAME);
+    int superIndex = pool.classRef("java/lang/Object");
+    int interfaceIndex = pool.classRef(INTERFACE_NAME);
+    // one field for each distinct function, plus one for the post operator
+    Map<ToDoubleFunction<double[]>, Integer> functionFields = new IdentityHashMap<>();
+    List<Object> data = new ArrayList<>();
+    // apply(double[] input, double[] output): slots 0, 1, 2 are this, input, output; then one double (2 slots) each
+    Code apply = new Code();
+    Map<Object, Integer> slots = new HashMap<>();
+    int[] nextSlot = new int[] {3};
+    List<Integer> outputSlots = new ArrayList<>();
+    for (Expression output : outputs) {
+      outputSlots.add(emit(output, apply, pool, slots, nextSlot, functionFields, data));
+    }
+    int postOperatorField = data.size();
+    data.add(postOperator);
+    for (int j = 0; j < outputSlots.size(); j = j + 1) {
+      apply.u1(0x2c); // aload_2
+      apply.pushInt(j);
+      if (postOperator != null) {
+        apply.u1(0x2a); // aload_0
+        apply.u1(0xb4); // getfield
+        apply.u2(pool.member(9, CLASS_NAME, "f" + postOperatorField, POST_OPERATOR_DESCRIPTOR));
+      }
+      apply.local(0x18, outputSlots.get(j)); // dload
+      if (postOperator != null) {
+        apply.u1(0xb9); // invokeinterface
+        apply.u2(pool.member(11, "java/util/function/DoubleUnaryOperator", "applyAsDouble", "(D)D"));
+        apply.u1(3);
+        apply.u1(0);
+      }
+      apply.u1(0x52); // dastore
+    }
+    apply.u1(0xb1); // return
+    if (apply.length() > MAX_CODE_LENGTH || nextSlot[0] > MAX_LOCALS) {
+      throw new IllegalArgumentException("Expressions too large to be compiled: %d bytes of code, %d locals"
+          .formatted(apply.length(), nextSlot[0]));
+    }
+    // constructor: sets the fields from the data array
+    Code init = new Code();
+    init.u1(0x2a); // aload_0
+    init.u1(0xb7); // invokespecial
+    init.u2(pool.member(10, "java/lang/Object", "<init>", "()V"));
+    for (int i = 0; i < data.size(); i = i + 1) {
+      String descriptor = i == postOperatorField ? POST_OPERATOR_DESCRIPTOR : FUNCTION_DESCRIPTOR;
+      init.u1(0x2a); // aload_0
+      init.u1(0x2b); // aload_1
+      init.pushInt(i);
+      init.u1(0x32); // aaload
+      init.u1(0xc0); // checkcast
+      init.u2(pool.classRef(descriptor.substring(1, descriptor.length() - 1)));
+      init.u1(0xb5); // putfield
+      init.u2(pool.member(9, CLASS_NAME, "f" + i, descriptor));
+    }
+    init.u1(0xb1); // return
+    int codeIndex = pool.utf8("Code");
+    int initNameIndex = pool.utf8("<init>");
+    int initDescriptorIndex = pool.utf8("([Ljava/lang/Object;)V");
+    int applyNameIndex = pool.utf8("apply");
+    int applyDescriptorIndex = pool.utf8("([D[D)V");
+    int[] fieldNameIndexes = new int[data.size()];
+    int[] fieldDescriptorIndexes = new int[data.size()];
+    for (int i = 0; i < data.size(); i = i + 1) {
+      fieldNameIndexes[i] = pool.utf8("f" + i);
+      fieldDescriptorIndexes[i] = pool.utf8(i == postOperatorField ? POST_OPERATOR_DESCRIPTOR : FUNCTION_DESCRIPTOR);
+    }
+    if (pool.count > MAX_CONSTANT_POOL_COUNT) {
+      throw new IllegalArgumentException(
+          "Expressions too large to be compiled: %d constant pool entries".formatted(pool.count - 1));
+    }
+    // write class
+    ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(classBytes)) {
+      out.writeInt(0xCAFEBABE);
+      out.writeShort(0);
+      out.writeShort(61);
+      out.writeShort(pool.count);
+      pool.out.flush();
+      pool.bytes.writeTo(out);
+      out.writeShort(0x0010 | 0x0020); // final, super
+      out.writeShort(thisIndex);
+      out.writeShort(superIndex);
+      out.writeShort(1);
+      out.writeShort(interfaceIndex);
+      out.writeShort(data.size());
+      for (int i = 0; i < data.size(); i = i + 1) {
+        out.writeShort(0x0002 | 0x0010); // private, final
+        out.writeShort(fieldNameIndexes[i]);
+        out.writeShort(fieldDescriptorIndexes[i]);
+        out.writeShort(0);
+      }
+      out.writeShort(2);
+      writeMethod(out, initNameIndex, initDescriptorIndex, codeIndex, 3, 2, init);
+      writeMethod(out, applyNameIndex, applyDescriptorIndex, codeIndex, 6, nextSlot[0], apply);
+      out.writeShort(0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    try {
+      Class<?> hiddenClass = MethodHandles.lookup()
+          .defineHiddenClass(classBytes.toByteArray(), true)
+          .lookupClass();
+      return (CompiledFunction)
+          hiddenClass.getConstructor(Object[].class).newInstance((Object) data.toArray());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot instantiate compiled expressions", e);
+    }
+  }
+
+  private static int emit(
+      Expression expression,
+      Code code,
+      ConstantPool pool,
+      Map<Object, Integer> slots,
+      int[] nextSlot,
+      Map<ToDoubleFunction<double[]>, Integer> functionFields,
+      List<Object> data) {
+    Object key;
+    if (expression instanceof Expression.Call call) {
+      key = new CallKey(call.function(), emitArgs(call.args(), code, pool, slots, nextSlot, functionFields, data));
+    } else if (expression instanceof Expression.Operation operation) {
+      key = new OperationKey(
+          operation.operator(), emitArgs(operation.args(), code, pool, slots, nextSlot, functionFields, data));
+    } else {
+      key = expression;
+    }
+    Integer slot = slots.get(key);
+    if (slot != null) {
+      return slot;
+    }
+    slot = nextSlot[0];
+    nextSlot[0] = nextSlot[0] + 2;
+    slots.put(key, slot);
+    switch (expression) {
+      case Expression.Input input -> {
+        code.u1(0x2b); // aload_1
+        code.pushInt(input.index());
+        code.u1(0x31); // daload
+      }
+      case Expression.Constant constant -> {
+        code.u1(0x14); // ldc2_w
+        code.u2(pool.doubleValue(constant.value()));
+      }
+      case Expression.Call call -> {
+        int field = functionFields.computeIfAbsent(call.function(), f -> {
+          data.add(f);
+          return data.size() - 1;
+        });
+        List<Integer> argSlots = ((CallKey) key).argSlots();
+        code.u1(0x2a); // aload_0
+        code.u1(0xb4); // getfield
+        code.u2(pool.member(9, CLASS_NAME, "f" + field, FUNCTION_DESCRIPTOR));
+        code.pushInt(argSlots.size());
+        code.u1(0xbc); // newarray
+        code.u1(7); // double
+        for (int i = 0; i < argSlots.size(); i = i + 1) {
+          code.u1(0x59); // dup
+          code.pushInt(i);
+          code.local(0x18, argSlots.get(i)); // dload
+          code.u1(0x52); // dastore
+        }
+        code.u1(0xb9); // invokeinterface
+        code.u2(pool.member(11, "java/util/function/ToDoubleFunction", "applyAsDouble", "(Ljava/lang/Object;)D"));
+        code.u1(2);
+        code.u1(0);
+      }
+      case Expression.Operation operation -> {
+        List<Integer> argSlots = ((OperationKey) key).argSlots();
+        switch (operation.operator()) {
+          case OPPOSITE -> code.u1(0x0e); // dconst_0
+          case INVERSE -> code.u1(0x0f); // dconst_1
+          default -> {}
+        }
+        for (int argSlot : argSlots) {
+          code.local(0x18, argSlot); // dload
+        }
+        switch (operation.operator()) {
+          case ADD -> code.u1(0x63); // dadd
+          case SUBTRACT, OPPOSITE -> code.u1(0x67); // dsub
+          case MULTIPLY -> code.u1(0x6b); // dmul
+          case DIVIDE, INVERSE -> code.u1(0x6f); // ddiv
+          case SQUARE -> {
+            code.u1(0x14); // ldc2_w
+            code.u2(pool.doubleValue(2d));
+            code.u1(0xb8); // invokestatic
+            code.u2(pool.member(10, "java/lang/Math", "pow", "(DD)D"));
+          }
+          case SQRT, LOG, EXP, SIN, COS -> {
+            code.u1(0xb8); // invokestatic
+            code.u2(pool.member(
+                10, "java/lang/Math", operation.operator().name().toLowerCase(Locale.ROOT), "(D)D"));
+          }
+        }
+      }
+    }
+    code.local(0x39, slot); // dstore
+    return slot;
+  }
+
+  private static List<Integer> emitArgs(
+      List<Expression> args,
+      Code code,
+      ConstantPool pool,
+      Map<Object, Integer> slots,
+      int[] nextSlot,
+      Map<ToDoubleFunction<double[]>, Integer> functionFields,
+      List<Object> data) {
+    List<Integer> argSlots = new ArrayList<>(args.size());
+    for (Expression arg : args) {
+      argSlots.add(emit(arg, code, pool, slots, nextSlot, functionFields, data));
+    }
+    return argSlots;
+  }
+
+  private static void writeMethod(
+      DataOutputStream out, int nameIndex, int descriptorIndex, int codeIndex, int maxStack, int maxLocals, Code code)
+      throws IOException {
+    out.writeShort(0x0001); // public
+    out.writeShort(nameIndex);
+    out.writeShort(descriptorIndex);
+    out.writeShort(1);
+    out.writeShort(codeIndex);
+    out.writeInt(2 + 2 + 4 + code.length() + 2 + 2);
+    out.writeShort(maxStack);
+    out.writeShort(maxLocals);
+    out.writeInt(code.length());
+    code.bytes.writeTo(out);
+    out.writeShort(0);
+    out.writeShort(0);
+  }
+}
@@ -21,92 +21,234 @@ package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
 
 import io.github.ericmedvet.jsdynsym.core.composed.AbstractComposed;
 import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.PrintStream;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 
 public class IOSaver<S> extends AbstractComposed<NumericalDynamicalSystem<S>> implements NumericalDynamicalSystem<S> {
 
+  public static final String SHARDS_INDEX_SUFFIX = ".shards";
+  public static final String SAMPLES_SUFFIX = ".samples";
   private static final Map<PrinterKey, PrinterInfo> PRINTER_MAP = new HashMap<>();
+  private static final Set<String> MERGE_ON_EXIT_FILE_PATHS = ConcurrentHashMap.newKeySet();
+  private static final Object SHARDS_INDEX_LOCK = new Object();
+  private static final AtomicInteger SHARD_COUNTER = new AtomicInteger();
+  private static final ThreadLocal<Integer> SHARD_ID = ThreadLocal.withInitial(SHARD_COUNTER::incrementAndGet);
   private static final Logger L = Logger.getLogger(IOSaver.class.getName());
   private final String filePath;
   private final double initialT;
   private final double finalT;
-  private CSVPrinter printer;
+  private final Settings settings;
+  private final Session session;
+  private PrinterKey key;
+  private PrinterKey summaryKey;
+  private RowWriter writer;
+  private RowWriter summaryWriter;
+  private StreamingStatistics statistics;
+  private double[] row;
   private int index;
+  private long nOfSteps;
+  private boolean started;
   private boolean stopped;
 
-  public IOSaver(NumericalDynamicalSystem<S> inner, String filePath, double initialT, double finalT) {
+  public IOSaver(
+      NumericalDynamicalSystem<S> inner,
+      String filePath,
+      double initialT,
+      double finalT,
+      Settings settings,
+      Session session) {
     super(inner);
     this.filePath = filePath;
     this.initialT = initialT;
     this.finalT = finalT;
+    this.settings = settings;
+    this.session = session;
     stopped = false;
+    if (settings.sharded() && settings.mergeOnExit() && MERGE_ON_EXIT_FILE_PATHS.add(filePath)) {
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> mergeShardsOnExit(filePath)));
+    }
   }
 
-  private record PrinterInfo(CSVPrinter printer, AtomicInteger counter) {}
+  public IOSaver(
+      NumericalDynamicalSystem<S> inner, String filePath, double initialT, double finalT, Settings settings) {
+    this(inner, filePath, initialT, finalT, settings, new Session());
+  }
 
-  private record PrinterKey(String filePath, int nOfInputs, int nOfOutputs) {}
+  public IOSaver(NumericalDynamicalSystem<S> inner, String filePath, double initialT, double finalT) {
+    this(inner, filePath, initialT, finalT, Settings.DEFAULT);
+  }
 
-  private static void closePrinter(PrinterKey key) {
-    PrinterInfo value = PRINTER_MAP.get(key);
-    if (value == null) {
-      L.warning("Cannot close unopened printer");
-      return;
-    }
-    int count = value.counter().decrementAndGet();
-    if (count <= 0) {
-      // close printer
-      try {
-        value.printer().close(true);
-        L.info("File %s closed".formatted(key.filePath()));
-      } catch (IOException e) {
-        L.warning("Cannot close file due to %s".formatted(e));
+  public enum Backpressure {
+    BLOCK,
+    DROP
+  }
+
+  public enum Format {
+    CSV,
+    FLOAT64,
+    FLOAT32
+  }
+
+  public record Settings(
+      Format format,
+      boolean async,
+      int bufferSize,
+      Backpressure backpressure,
+      boolean sharded,
+      boolean mergeOnExit,
+      boolean summarize,
+      int decimation,
+      int nOfBins,
+      double binMin,
+      double binMax) {
+    public static final Settings DEFAULT =
+        new Settings(Format.CSV, false, 4096, Backpressure.BLOCK, false, false, false, 1, 0, 0, 0);
+
+    public Settings {
+      // with an empty buffer, an async writer would block forever (or drop every row)
+      if (async && bufferSize < 1) {
+        throw new IllegalArgumentException("Invalid buffer size for async writing: %d".formatted(bufferSize));
       }
     }
   }
 
-  private static PrinterInfo openPrinter(PrinterKey key) {
-    PrinterInfo printerInfo = PRINTER_MAP.get(key);
-    if (printerInfo != null) {
-      printerInfo.counter().incrementAndGet();
-      return printerInfo;
+  // the files written by the savers of one run: the first saver of the run truncates a file, the others append on it
+  public static class Session {
+    private final Set<String> createdFilePaths = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicInteger> indexes = new ConcurrentHashMap<>();
+  }
+
+  private record PrinterInfo(RowWriter writer, AtomicInteger counter) {}
+
+  private record PrinterKey(String filePath, int nOfInputs, int nOfOutputs, boolean summary) {}
+
+  private static void closePrinter(PrinterKey key) {
+    PrinterInfo value;
+    synchronized (PRINTER_MAP) {
+      value = PRINTER_MAP.get(key);
+      if (value == null) {
+        L.warning("Cannot close unopened printer");
+        return;
+      }
+      if (value.counter().decrementAndGet() > 0) {
+        return;
+      }
+      PRINTER_MAP.remove(key);
     }
-    // create printer
-    CSVPrinter printer;
+    // close printer
     try {
-      printer = new CSVPrinter(
-          new PrintStream(new FileOutputStream(key.filePath())),
-          CSVFormat.Builder.create().setDelimiter(";").build());
+      value.writer().close();
+      L.info("File %s closed".formatted(key.filePath()));
     } catch (IOException e) {
-      L.warning("Cannot write on file due to %s".formatted(e));
-      return null;
+      L.warning("Cannot close file due to %s".formatted(e));
     }
-    // print header
-    try {
-      // TODO to be replaced with a call to Agents.varNames()
-      printer.printRecord(Stream.concat(
-              Stream.of("index", "t"),
-              Stream.concat(
-                  varNames("x", key.nOfInputs()).stream(), varNames("y", key.nOfOutputs()).stream()))
-          .toList());
-      L.info("Header written on %s".formatted(key.filePath));
-    } catch (IOException e) {
-      L.warning("Cannot write header due to %s".formatted(e));
+  }
+
+  public static void mergeShards(String filePath) throws IOException {
+    ShardMerger.merge(filePath, shardsIndexPath(filePath));
+  }
+
+  private static void mergeShardsOnExit(String filePath) {
+    // close the shards of agents which did not reach the final time
+    List<PrinterKey> keys;
+    synchronized (PRINTER_MAP) {
+      keys = PRINTER_MAP.keySet().stream()
+          .filter(k -> k.filePath().startsWith(filePath + "."))
+          .toList();
+    }
+    keys.forEach(k -> {
+      PrinterInfo printerInfo;
+      synchronized (PRINTER_MAP) {
+        printerInfo = PRINTER_MAP.remove(k);
+      }
+      if (printerInfo != null) {
+        try {
+          printerInfo.writer().close();
+        } catch (IOException e) {
+          L.warning("Cannot close file due to %s".formatted(e));
+        }
+      }
+    });
+    for (String mergedFilePath : List.of(filePath, filePath + SAMPLES_SUFFIX)) {
+      if (Files.exists(shardsIndexPath(mergedFilePath))) {
+        try {
+          mergeShards(mergedFilePath);
+          L.info("Shards merged on %s".formatted(mergedFilePath));
+        } catch (IOException e) {
+          L.warning("Cannot merge shards due to %s".formatted(e));
+        }
+      }
     }
-    printerInfo = new PrinterInfo(printer, new AtomicInteger(1));
-    PRINTER_MAP.put(key, printerInfo);
-    return printerInfo;
+  }
+
+  private static PrinterInfo openPrinter(
+      PrinterKey key, List<String> header, Settings settings, Session session) {
+    synchronized (PRINTER_MAP) {
+      PrinterInfo printerInfo = PRINTER_MAP.get(key);
+      if (printerInfo != null) {
+        printerInfo.counter().incrementAndGet();
+        return printerInfo;
+      }
+      // create printer and print header, or append if the file has already been created by another agent
+      boolean append = !session.createdFilePaths.add(key.filePath());
+      RowWriter writer;
+      try {
+        writer = switch (settings.format()) {
+          case CSV -> new CsvRowWriter(key.filePath(), header, append);
+          case FLOAT64 -> new BinaryRowWriter(key.filePath(), header, false, append);
+          case FLOAT32 -> new BinaryRowWriter(key.filePath(), header, true, append);
+        };
+        L.info("%s %s".formatted(append ? "Appending on" : "Header written on", key.filePath));
+      } catch (IOException e) {
+        L.warning("Cannot write on file due to %s".formatted(e));
+        return null;
+      }
+      if (settings.async()) {
+        writer = new AsyncRowWriter(
+            writer, key.filePath(), header.size(), settings.bufferSize(), settings.backpressure());
+      }
+      printerInfo = new PrinterInfo(writer, new AtomicInteger(1));
+      PRINTER_MAP.put(key, printerInfo);
+      return printerInfo;
+    }
+  }
+
+  private static String shardFilePath(String filePath, Session session) {
+    String shardFilePath = "%s.%03d".formatted(filePath, SHARD_ID.get());
+    if (!session.createdFilePaths.contains(shardFilePath)) {
+      synchronized (SHARDS_INDEX_LOCK) {
+        try {
+          // the index is rewritten from scratch by the first shard of this execution
+          Files.writeString(
+              shardsIndexPath(filePath),
+              shardFilePath + System.lineSeparator(),
+              StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE,
+              session.createdFilePaths.add(shardsIndexPath(filePath).toString())
+                  ? StandardOpenOption.TRUNCATE_EXISTING
+                  : StandardOpenOption.APPEND);
+        } catch (IOException e) {
+          L.warning("Cannot update shards index due to %s".formatted(e));
+        }
+      }
+    }
+    return shardFilePath;
+  }
+
+  private static Path shardsIndexPath(String filePath) {
+    return Path.of(filePath + SHARDS_INDEX_SUFFIX);
   }
 
   private static List<String> varNames(String name, int number) {
@@ -126,38 +268,85 @@ public class IOSaver<S> extends AbstractComposed<NumericalDynamicalSystem<S>> im
     inner().reset();
   }
 
+  private void start(int nOfInputs, int nOfOutputs) {
+    started = true;
+    // TODO to be replaced with a call to Agents.varNames()
+    List<String> varNames = Stream.concat(
+            varNames("x", nOfInputs).stream(), varNames("y", nOfOutputs).stream())
+        .toList();
+    String rawFilePath = settings.summarize() ? filePath + SAMPLES_SUFFIX : filePath;
+    // when summarizing, raw rows are written only if explicitly asked, i.e., with a positive decimation
+    if (!settings.summarize() || settings.decimation() > 0) {
+      // with shards, each thread writes on its own file
+      key = new PrinterKey(
+          settings.sharded() ? shardFilePath(rawFilePath, session) : rawFilePath, nOfInputs, nOfOutputs, false);
+      PrinterInfo printerInfo = openPrinter(
+          key,
+          Stream.concat(Stream.of("index", "t"), varNames.stream()).toList(),
+          settings,
+          session);
+      if (printerInfo != null) {
+        writer = printerInfo.writer();
+        row = new double[2 + nOfInputs + nOfOutputs];
+      }
+    }
+    if (settings.summarize()) {
+      summaryKey = new PrinterKey(
+          settings.sharded() ? shardFilePath(filePath, session) : filePath, nOfInputs, nOfOutputs, true);
+      PrinterInfo printerInfo = openPrinter(
+          summaryKey, StreamingStatistics.names(varNames, settings.nOfBins()), settings, session);
+      if (printerInfo != null) {
+        summaryWriter = printerInfo.writer();
+        statistics = new StreamingStatistics(
+            nOfInputs + nOfOutputs, settings.nOfBins(), settings.binMin(), settings.binMax());
+      }
+    }
+    index = session.indexes.computeIfAbsent(filePath, p -> new AtomicInteger()).incrementAndGet();
+  }
+
   @Override
   public double[] step(double t, double[] input) {
     double[] output = inner().step(t, input);
     if (t >= initialT && !stopped) {
-      PrinterKey key = new PrinterKey(filePath, input.length, output.length);
-      if (printer == null) {
-        PrinterInfo printerInfo = openPrinter(key);
-        if (printerInfo != null) {
-          printer = printerInfo.printer;
-          index = printerInfo.counter().get();
-        }
+      if (!started) {
+        start(input.length, output.length);
+      }
+      if (statistics != null) {
+        statistics.add(input, output);
       }
-      if (printer != null) {
+      if (writer != null && nOfSteps % Math.max(1, settings.decimation()) == 0) {
         // write a row
+        row[0] = index;
+        row[1] = t;
+        System.arraycopy(input, 0, row, 2, input.length);
+        System.arraycopy(output, 0, row, 2 + input.length, output.length);
         try {
-          printer.printRecord(Stream.concat(
-                  Stream.of((double) index, t),
-                  Stream.concat(
-                      Arrays.stream(input).boxed(),
-                      Arrays.stream(output).boxed()))
-              .toList());
+          writer.write(row);
         } catch (IOException e) {
           L.warning("Cannot write row due to %s".formatted(e));
         }
-        if (t >= finalT) {
-          if (printer != null) {
-            // close printer
-            closePrinter(key);
-            printer = null;
-            stopped = true;
+      }
+      nOfSteps = nOfSteps + 1;
+      if (t >= finalT) {
+        if (summaryWriter != null) {
+          // write the summary
+          double[] summaryRow = new double[1 + statistics.size()];
+          summaryRow[0] = index;
+          statistics.fill(summaryRow, 1);
+          try {
+            summaryWriter.write(summaryRow);
+          } catch (IOException e) {
+            L.warning("Cannot write summary due to %s".formatted(e));
           }
+          closePrinter(summaryKey);
+          summaryWriter = null;
+        }
+        if (writer != null) {
+          // close printer
+          closePrinter(key);
+          writer = null;
         }
+        stopped = true;
       }
     }
     return output;
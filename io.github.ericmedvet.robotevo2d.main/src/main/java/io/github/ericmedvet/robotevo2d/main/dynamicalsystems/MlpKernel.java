@@ -0,0 +1,62 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
+
+interface MlpKernel {
+
+  // out[j] = params[offset + j * (n + 1)] + sum_k params[offset + j * (n + 1) + 1 + k] * in[k], with n = in.length
+  void affine(double[] params, int offset, double[] in, double[] out, int nOfOutputs);
+
+  void activate(MultiLayerPerceptron.ActivationFunction activationFunction, double[] values);
+
+  String name();
+
+  final class Scalar implements MlpKernel {
+
+    @Override
+    public void affine(double[] params, int offset, double[] in, double[] out, int nOfOutputs) {
+      int c = offset;
+      for (int j = 0; j < nOfOutputs; j = j + 1) {
+        double v = params[c];
+        c = c + 1;
+        for (int k = 0; k < in.length; k = k + 1) {
+          v = v + params[c + k] * in[k];
+        }
+        c = c + in.length;
+        out[j] = v;
+      }
+    }
+
+    @Override
+    public void activate(MultiLayerPerceptron.ActivationFunction activationFunction, double[] values) {
+      for (int i = 0; i < values.length; i = i + 1) {
+        values[i] = activationFunction.applyAsDouble(values[i]);
+      }
+    }
+
+    @Override
+    public String name() {
+      return "scalar";
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class ShardMerger {
+
+  private ShardMerger() {}
+
+  static void merge(String filePath, Path shardsIndexPath) throws IOException {
+    List<Path> shardPaths = Files.readAllLines(shardsIndexPath, StandardCharsets.UTF_8).stream()
+        .filter(l -> !l.isBlank())
+        .map(Path::of)
+        .filter(Files::exists)
+        .toList();
+    if (shardPaths.isEmpty()) {
+      return;
+    }
+    if (BinaryRowWriter.isBinary(shardPaths.get(0))) {
+      mergeBinary(filePath, shardPaths);
+    } else {
+      mergeCsv(filePath, shardPaths);
+    }
+  }
+
+  private static void mergeBinary(String filePath, List<Path> shardPaths) throws IOException {
+    List<BinaryTraceReader> readers = new ArrayList<>();
+    try {
+      for (Path shardPath : shardPaths) {
+        readers.add(new BinaryTraceReader(shardPath));
+      }
+      BinaryTraceReader first = readers.get(0);
+      for (BinaryTraceReader reader : readers) {
+        if (!reader.names().equals(first.names()) || reader.bytesPerValue() != first.bytesPerValue()) {
+          throw new IOException("Shards have different columns or precision");
+        }
+      }
+      BinaryRowWriter writer =
+          new BinaryRowWriter(filePath, first.names(), first.bytesPerValue() == Float.BYTES, false);
+      try {
+        for (BinaryTraceReader reader : readers) {
+          writer.transferFrom(
+              reader.channel(),
+              reader.dataOffset(),
+              reader.nOfRows() * reader.names().size() * reader.bytesPerValue(),
+              reader.nOfRows());
+        }
+      } finally {
+        writer.close();
+      }
+    } finally {
+      for (BinaryTraceReader reader : readers) {
+        reader.close();
+      }
+    }
+  }
+
+  private static void mergeCsv(String filePath, List<Path> shardPaths) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(Path.of(filePath), StandardCharsets.UTF_8)) {
+      boolean first = true;
+      for (Path shardPath : shardPaths) {
+        try (BufferedReader reader = Files.newBufferedReader(shardPath, StandardCharsets.UTF_8)) {
+          String header = reader.readLine();
+          if (header == null) {
+            continue;
+          }
+          if (first) {
+            writer.write(header);
+            writer.newLine();
+            first = false;
+          }
+          String line;
+          while ((line = reader.readLine()) != null) {
+            writer.write(line);
+            writer.newLine();
+          }
+        }
+      }
+    }
+  }
+}
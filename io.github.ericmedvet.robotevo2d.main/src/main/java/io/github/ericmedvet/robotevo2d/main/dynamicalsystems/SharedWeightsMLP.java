@@ -0,0 +1,178 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import io.github.ericmedvet.jnb.datastructure.NumericalParametrized;
+import io.github.ericmedvet.jsdynsym.core.numerical.MultivariateRealFunction;
+import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+public class SharedWeightsMLP implements MultivariateRealFunction, NumericalParametrized<SharedWeightsMLP> {
+
+  public static final String VECTOR_DISABLING_PROPERTY_NAME = "robotevo2d.vector.disabled";
+  private static final String VECTOR_MODULE_NAME = "jdk.incubator.vector";
+  private static final String VECTOR_KERNEL_CLASS_NAME = "VectorMlpKernel";
+  private static final Logger L = Logger.getLogger(SharedWeightsMLP.class.getName());
+  private static final MlpKernel KERNEL = kernel();
+
+  private final Weights weights;
+  private final double[][] activations;
+
+  public SharedWeightsMLP(MultiLayerPerceptron.ActivationFunction activationFunction, int[] neurons) {
+    this(new Weights(activationFunction, neurons, new double[nOfParams(neurons)]));
+  }
+
+  private SharedWeightsMLP(Weights weights) {
+    this.weights = weights;
+    // inner layers only: the output is not reused, since the caller might keep it
+    activations = new double[weights.neurons.length][];
+    for (int l = 1; l < weights.neurons.length - 1; l = l + 1) {
+      activations[l] = new double[weights.neurons[l]];
+    }
+  }
+
+  private static final class Weights {
+    private final MultiLayerPerceptron.ActivationFunction activationFunction;
+    private final int[] neurons;
+    private final double[] params;
+
+    private Weights(MultiLayerPerceptron.ActivationFunction activationFunction, int[] neurons, double[] params) {
+      this.activationFunction = activationFunction;
+      this.neurons = neurons;
+      this.params = params;
+    }
+  }
+
+  private static MlpKernel kernel() {
+    MlpKernel kernel = vectorKernel().orElseGet(MlpKernel.Scalar::new);
+    L.info("Using %s kernel for shared MLPs".formatted(kernel.name()));
+    return kernel;
+  }
+
+  private static Optional<MlpKernel> vectorKernel() {
+    if (Boolean.getBoolean(VECTOR_DISABLING_PROPERTY_NAME)) {
+      return Optional.empty();
+    }
+    // the vector kernel is in the jar only if built with the vector profile
+    if (SharedWeightsMLP.class.getResource(VECTOR_KERNEL_CLASS_NAME + ".class") == null) {
+      return Optional.empty();
+    }
+    Optional<Module> oVectorModule = ModuleLayer.boot().findModule(VECTOR_MODULE_NAME);
+    if (oVectorModule.isEmpty()) {
+      L.info("Vector kernel for shared MLPs not used: start the JVM with --add-modules %s to use it"
+          .formatted(VECTOR_MODULE_NAME));
+      return Optional.empty();
+    }
+    // the module does not require the vector module, hence it has to read it, if named
+    SharedWeightsMLP.class.getModule().addReads(oVectorModule.get());
+    // by name, so that the vector classes are not loaded when the module is missing
+    try {
+      return Optional.of((MlpKernel) Class.forName(
+              SharedWeightsMLP.class.getPackageName() + "." + VECTOR_KERNEL_CLASS_NAME)
+          .getDeclaredConstructor()
+          .newInstance());
+    } catch (ReflectiveOperationException | LinkageError e) {
+      L.warning("Cannot use vector kernel due to %s".formatted(e));
+      return Optional.empty();
+    }
+  }
+
+  public static String kernelName() {
+    return KERNEL.name();
+  }
+
+  public static int[] neurons(int nOfInputs, double innerLayerRatio, int nOfInnerLayers, int nOfOutputs) {
+    int[] neurons = new int[nOfInnerLayers + 2];
+    neurons[0] = nOfInputs;
+    for (int l = 1; l <= nOfInnerLayers; l = l + 1) {
+      neurons[l] = (int) Math.max(1, Math.round(neurons[l - 1] * innerLayerRatio));
+    }
+    neurons[nOfInnerLayers + 1] = nOfOutputs;
+    return neurons;
+  }
+
+  public static int nOfParams(int[] neurons) {
+    int n = 0;
+    for (int l = 1; l < neurons.length; l = l + 1) {
+      n = n + (neurons[l - 1] + 1) * neurons[l];
+    }
+    return n;
+  }
+
+  @Override
+  public double[] compute(double... input) {
+    int[] neurons = weights.neurons;
+    if (input.length != neurons[0]) {
+      throw new IllegalArgumentException(
+          "Wrong number of inputs: %d expected, %d found".formatted(neurons[0], input.length));
+    }
+    double[] in = input;
+    int c = 0;
+    for (int l = 1; l < neurons.length; l = l + 1) {
+      double[] out = l == neurons.length - 1 ? new double[neurons[l]] : activations[l];
+      // the first weight of each neuron is the bias
+      KERNEL.affine(weights.params, c, in, out, neurons[l]);
+      KERNEL.activate(weights.activationFunction, out);
+      c = c + (in.length + 1) * neurons[l];
+      in = out;
+    }
+    return in;
+  }
+
+  @Override
+  public double[] getParams() {
+    return Arrays.copyOf(weights.params, weights.params.length);
+  }
+
+  @Override
+  public void setParams(double[] params) {
+    if (params.length != weights.params.length) {
+      throw new IllegalArgumentException(
+          "Wrong number of params: %d expected, %d found".formatted(weights.params.length, params.length));
+    }
+    System.arraycopy(params, 0, weights.params, 0, params.length);
+  }
+
+  @Override
+  public int nOfInputs() {
+    return weights.neurons[0];
+  }
+
+  @Override
+  public int nOfOutputs() {
+    return weights.neurons[weights.neurons.length - 1];
+  }
+
+  // a system sharing the weights with this one, but with its own buffers
+  public SharedWeightsMLP view() {
+    return new SharedWeightsMLP(weights);
+  }
+
+  @Override
+  public String toString() {
+    return "sharedWeightsMLP[%s;%s]"
+        .formatted(
+            Arrays.stream(weights.neurons).mapToObj(Integer::toString).reduce((s1, s2) -> s1 + ">" + s2).orElse(""),
+            weights.activationFunction.toString().toLowerCase());
+  }
+}
@@ -0,0 +1,122 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+class StreamingStatistics {
+
+  private static final List<String> STAT_NAMES = List.of("mean", "sd", "min", "max", "ac1");
+
+  private final int nOfBins;
+  private final double binMin;
+  private final double binMax;
+  private final double[] means;
+  private final double[] m2s;
+  private final double[] mins;
+  private final double[] maxs;
+  private final double[] lastValues;
+  private final double[] lagProducts;
+  private final long[] counts;
+  private long n;
+
+  StreamingStatistics(int nOfVariables, int nOfBins, double binMin, double binMax) {
+    this.nOfBins = nOfBins;
+    this.binMin = binMin;
+    this.binMax = binMax;
+    means = new double[nOfVariables];
+    m2s = new double[nOfVariables];
+    mins = new double[nOfVariables];
+    maxs = new double[nOfVariables];
+    lastValues = new double[nOfVariables];
+    lagProducts = new double[nOfVariables];
+    counts = new long[nOfVariables * nOfBins];
+  }
+
+  static List<String> names(List<String> varNames, int nOfBins) {
+    return Stream.concat(
+            Stream.of("index", "n"),
+            varNames.stream()
+                .flatMap(varName -> Stream.concat(
+                    STAT_NAMES.stream().map(s -> varName + "." + s),
+                    IntStream.range(0, nOfBins).mapToObj(b -> "%s.h%d".formatted(varName, b)))))
+        .toList();
+  }
+
+  void add(double[] input, double[] output) {
+    n = n + 1;
+    for (int i = 0; i < input.length; i++) {
+      update(i, input[i]);
+    }
+    for (int i = 0; i < output.length; i++) {
+      update(input.length + i, output[i]);
+    }
+  }
+
+  void fill(double[] row, int offset) {
+    row[offset] = n;
+    int c = offset + 1;
+    for (int i = 0; i < means.length; i++) {
+      double variance = n == 0 ? Double.NaN : m2s[i] / n;
+      row[c] = n == 0 ? Double.NaN : means[i];
+      row[c + 1] = Math.sqrt(variance);
+      row[c + 2] = n == 0 ? Double.NaN : mins[i];
+      row[c + 3] = n == 0 ? Double.NaN : maxs[i];
+      // lag-1 autocorrelation, computed with the overall mean and variance
+      row[c + 4] = (n > 2 && variance > 0)
+          ? (lagProducts[i] / (n - 1) - means[i] * means[i]) / variance
+          : Double.NaN;
+      c = c + STAT_NAMES.size();
+      for (int b = 0; b < nOfBins; b++) {
+        row[c + b] = counts[i * nOfBins + b];
+      }
+      c = c + nOfBins;
+    }
+  }
+
+  int size() {
+    return 1 + means.length * (STAT_NAMES.size() + nOfBins);
+  }
+
+  private void update(int i, double x) {
+    if (n == 1) {
+      mins[i] = x;
+      maxs[i] = x;
+    } else {
+      mins[i] = Math.min(mins[i], x);
+      maxs[i] = Math.max(maxs[i], x);
+      lagProducts[i] = lagProducts[i] + x * lastValues[i];
+    }
+    lastValues[i] = x;
+    // Welford's algorithm
+    double delta = x - means[i];
+    means[i] = means[i] + delta / n;
+    m2s[i] = m2s[i] + delta * (x - means[i]);
+    if (nOfBins > 0) {
+      // values outside the range go in the first or last bin
+      int bin = (int) Math.floor((x - binMin) / (binMax - binMin) * nOfBins);
+      bin = Math.max(0, Math.min(nOfBins - 1, bin));
+      counts[i * nOfBins + bin] = counts[i * nOfBins + bin] + 1;
+    }
+  }
+}
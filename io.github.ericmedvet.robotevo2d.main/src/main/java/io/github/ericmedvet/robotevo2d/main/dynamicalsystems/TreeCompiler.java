@@ -0,0 +1,184 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import io.github.ericmedvet.jgea.core.representation.NamedMultivariateRealFunction;
+import io.github.ericmedvet.jgea.core.representation.tree.Tree;
+import io.github.ericmedvet.jgea.core.representation.tree.numeric.Element;
+import io.github.ericmedvet.jsdynsym.core.numerical.MultivariateRealFunction;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Logger;
+
+public class TreeCompiler {
+
+  private static final Logger L = Logger.getLogger(TreeCompiler.class.getName());
+  private static final Map<String, Expression.Operator> OPERATOR_NAMES = Map.ofEntries(
+      Map.entry("ADDITION", Expression.Operator.ADD),
+      Map.entry("SUBTRACTION", Expression.Operator.SUBTRACT),
+      Map.entry("MULTIPLICATION", Expression.Operator.MULTIPLY),
+      Map.entry("DIVISION", Expression.Operator.DIVIDE),
+      Map.entry("OPPOSITE", Expression.Operator.OPPOSITE),
+      Map.entry("INVERSE", Expression.Operator.INVERSE),
+      Map.entry("SQ", Expression.Operator.SQUARE),
+      Map.entry("SQRT", Expression.Operator.SQRT),
+      Map.entry("LOG", Expression.Operator.LOG),
+      Map.entry("EXP", Expression.Operator.EXP),
+      Map.entry("SIN", Expression.Operator.SIN),
+      Map.entry("COS", Expression.Operator.COS));
+  private static final double[] PROBES = {
+    0d, -0d, 1d, -1d, 0.5, -2.75, 3.1e-7, 1.7e300, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN,
+    Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+  };
+  private static final Map<Element.Operator, Expression.Operator> OPERATORS = operators();
+
+  private TreeCompiler() {}
+
+  public static NamedMultivariateRealFunction compile(
+      List<Tree<Element>> trees,
+      List<String> xVarNames,
+      List<String> yVarNames,
+      Function<Double, Double> postOperator) {
+    if (trees.size() != yVarNames.size()) {
+      throw new IllegalArgumentException(
+          "Wrong number of trees: %d expected, %d found".formatted(yVarNames.size(), trees.size()));
+    }
+    // one function for each operator, so that equal subtrees are recognized as such
+    Map<Element.Operator, ToDoubleFunction<double[]>> functions = new HashMap<>();
+    List<Expression> outputs =
+        trees.stream().map(t -> expression(t, xVarNames, functions)).toList();
+    DoubleUnaryOperator doublePostOperator = postOperator::apply;
+    ExpressionCompiler.CompiledFunction compiledFunction;
+    try {
+      compiledFunction = ExpressionCompiler.compile(outputs, doublePostOperator);
+    } catch (IllegalArgumentException | IllegalStateException | LinkageError e) {
+      L.warning("Cannot compile trees due to %s: they will be interpreted".formatted(e));
+      compiledFunction = (input, output) -> {
+        for (int j = 0; j < output.length; j = j + 1) {
+          output[j] = doublePostOperator.applyAsDouble(outputs.get(j).evaluate(input));
+        }
+      };
+    }
+    return NamedMultivariateRealFunction.from(
+        new CompiledMultivariateRealFunction(compiledFunction, xVarNames.size(), yVarNames.size()),
+        xVarNames,
+        yVarNames);
+  }
+
+  // callers which evaluate the function on many inputs can write all the outputs on one array
+  public static final class CompiledMultivariateRealFunction implements MultivariateRealFunction {
+    private final ExpressionCompiler.CompiledFunction function;
+    private final int nOfInputs;
+    private final int nOfOutputs;
+
+    private CompiledMultivariateRealFunction(
+        ExpressionCompiler.CompiledFunction function, int nOfInputs, int nOfOutputs) {
+      this.function = function;
+      this.nOfInputs = nOfInputs;
+      this.nOfOutputs = nOfOutputs;
+    }
+
+    @Override
+    public double[] compute(double... input) {
+      double[] output = new double[nOfOutputs];
+      function.apply(input, output);
+      return output;
+    }
+
+    public void computeInto(double[] input, double[] output) {
+      function.apply(input, output);
+    }
+
+    @Override
+    public int nOfInputs() {
+      return nOfInputs;
+    }
+
+    @Override
+    public int nOfOutputs() {
+      return nOfOutputs;
+    }
+  }
+
+  private static boolean isSameAs(Element.Operator operator, Expression.Operator expressionOperator) {
+    double[] args = new double[expressionOperator.arity()];
+    int nOfCombinations = (int) Math.pow(PROBES.length, args.length);
+    for (int c = 0; c < nOfCombinations; c = c + 1) {
+      int index = c;
+      for (int i = 0; i < args.length; i = i + 1) {
+        args[i] = PROBES[index % PROBES.length];
+        index = index / PROBES.length;
+      }
+      try {
+        // also tells apart 0 and -0
+        if (Double.compare(operator.applyAsDouble(args.clone()), expressionOperator.apply(args)) != 0) {
+          return false;
+        }
+      } catch (RuntimeException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // jgea operators are compiled to plain operations only if they give exactly the same results on the probes,
+  // otherwise they are called as functions
+  private static Map<Element.Operator, Expression.Operator> operators() {
+    Map<Element.Operator, Expression.Operator> operators = new EnumMap<>(Element.Operator.class);
+    for (Element.Operator operator : Element.Operator.values()) {
+      Expression.Operator expressionOperator = OPERATOR_NAMES.get(operator.name());
+      if (expressionOperator != null && isSameAs(operator, expressionOperator)) {
+        operators.put(operator, expressionOperator);
+      }
+    }
+    return operators;
+  }
+
+  private static Expression expression(
+      Tree<Element> tree, List<String> xVarNames, Map<Element.Operator, ToDoubleFunction<double[]>> functions) {
+    return switch (tree.content()) {
+      case Element.Variable variable -> {
+        int index = xVarNames.indexOf(variable.name());
+        if (index < 0) {
+          throw new IllegalArgumentException("Unknown variable: %s".formatted(variable.name()));
+        }
+        yield new Expression.Input(index);
+      }
+      case Element.Constant constant -> new Expression.Constant(constant.value());
+      case Element.Operator operator -> {
+        List<Expression> args = tree.childStream()
+            .map(child -> expression(child, xVarNames, functions))
+            .toList();
+        Expression.Operator expressionOperator = OPERATORS.get(operator);
+        if (expressionOperator != null && expressionOperator.arity() == args.size()) {
+          yield new Expression.Operation(expressionOperator, args);
+        }
+        yield new Expression.Call(functions.computeIfAbsent(operator, o -> o::applyAsDouble), args);
+      }
+      default -> throw new IllegalArgumentException("Unsupported tree element: %s".formatted(tree.content()));
+    };
+  }
+}
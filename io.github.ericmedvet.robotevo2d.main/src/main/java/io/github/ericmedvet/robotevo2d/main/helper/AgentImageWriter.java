@@ -20,23 +20,37 @@
 
 package io.github.ericmedvet.robotevo2d.main.helper;
 
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import io.github.ericmedvet.jnb.core.NamedBuilder;
 import io.github.ericmedvet.mrsim2d.core.Agent;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
 import io.github.ericmedvet.mrsim2d.viewer.Drawer;
 import io.github.ericmedvet.mrsim2d.viewer.FramesImageBuilder;
+import io.github.ericmedvet.robotevo2d.main.util.BuilderIndex;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.imageio.ImageIO;
 
 public class AgentImageWriter {
@@ -53,49 +67,189 @@ public class AgentImageWriter {
   private static final String ENGINE_DESCRIPTION = "s.engine()";
   private static final String DRAWER_DESCRIPTION = "s.drawer(actions = true; miniAgents = brains)";
   private static final String IMGS_PATH = "assets/images/agents/";
+  private static final String TASK_DESCRIPTION_TEMPLATE =
+      "s.task.locomotion(terrain = s.t.hilly(chunkW = 1; chunkH = 0.25); duration = %f)";
 
-  private static final int W = 400;
-  private static final int H = 300;
-  private static final int N = 3;
-  private static final double D_T = 0.25;
-  private static final double T0 = 0.25;
+  public static class Configuration {
+    @Parameter(
+        names = {"--agents", "-a"},
+        description = "Comma-separated paths of files with agent descriptions, or of directories containing them;"
+            + " if empty, the agents of the examples are used.")
+    public List<String> agentFilePaths = List.of();
 
-  private static final String TASK_DESCRIPTION = String.format(
-      Locale.ROOT,
-      "s.task.locomotion(terrain = s.t.hilly(chunkW = 1; chunkH = 0.25); duration = %f)",
-      T0 + (N + 1d) * D_T);
+    @Parameter(
+        names = {"--outputDir", "-o"},
+        description = "Path of the directory where images are saved.")
+    public String imgsPath = IMGS_PATH;
+
+    @Parameter(
+        names = {"--w", "-w"},
+        description = "Width of one frame.")
+    public int w = 400;
+
+    @Parameter(
+        names = {"--height", "-H"},
+        description = "Height of one frame.")
+    public int h = 300;
+
+    @Parameter(
+        names = {"--nOfFrames", "-n"},
+        description = "Number of frames in each image.")
+    public int nOfFrames = 3;
+
+    @Parameter(
+        names = {"--deltaT", "-dt"},
+        description = "Simulated time between frames.")
+    public double deltaT = 0.25;
+
+    @Parameter(
+        names = {"--startTime", "-t0"},
+        description = "Simulated time of the first frame.")
+    public double startTime = 0.25;
+
+    @Parameter(
+        names = {"--nOfThreads", "-nt"},
+        description = "Number of threads used for generating images.")
+    public int nOfThreads = Runtime.getRuntime().availableProcessors();
+
+    @Parameter(
+        names = {"--help", "-h"},
+        description = "Show this help.",
+        help = true)
+    public boolean help;
+  }
+
+  private record AgentDescription(String name, String content) {}
+
+  private static List<AgentDescription> agentDescriptions(List<String> filePaths) throws IOException {
+    List<AgentDescription> descriptions = new ArrayList<>();
+    if (filePaths.isEmpty()) {
+      for (String agentResourcePath : AGENT_DESCRIPTION_RESOURCE_PATHS) {
+        //noinspection DataFlowIssue
+        try (InputStream inputStream = AgentImageWriter.class.getResourceAsStream(agentResourcePath);
+            BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+          descriptions.add(
+              new AgentDescription(name(agentResourcePath), br.lines().collect(Collectors.joining())));
+        }
+      }
+      return descriptions;
+    }
+    for (String filePath : filePaths) {
+      List<Path> paths;
+      if (Files.isDirectory(Path.of(filePath))) {
+        try (Stream<Path> files = Files.list(Path.of(filePath))) {
+          paths = files.filter(Files::isRegularFile).sorted().toList();
+        }
+      } else {
+        paths = List.of(Path.of(filePath));
+      }
+      for (Path path : paths) {
+        try (Stream<String> lines = Files.lines(path)) {
+          descriptions.add(new AgentDescription(name(path.toString()), lines.collect(Collectors.joining())));
+        }
+      }
+    }
+    return withUniqueNames(descriptions);
+  }
 
   public static void main(String[] args) {
-    NamedBuilder<?> nb = NamedBuilder.fromDiscovery();
-    String imgsPath = args.length > 1 ? args[0] : IMGS_PATH;
-    List<String> agentResourcePaths = AGENT_DESCRIPTION_RESOURCE_PATHS;
+    Configuration configuration = new Configuration();
+    JCommander jc = JCommander.newBuilder().addObject(configuration).build();
+    jc.setProgramName(AgentImageWriter.class.getName());
+    try {
+      jc.parse(args);
+    } catch (ParameterException e) {
+      e.usage();
+      System.err.printf("Cannot read command line options: %s%n", e);
+      System.exit(-1);
+    }
+    if (configuration.help) {
+      jc.usage();
+      System.exit(0);
+    }
+    List<AgentDescription> descriptions;
+    try {
+      descriptions = agentDescriptions(configuration.agentFilePaths);
+    } catch (IOException e) {
+      System.err.printf("Cannot read agent descriptions because: %s%n", e);
+      System.exit(-1);
+      return;
+    }
+    try {
+      Files.createDirectories(Path.of(configuration.imgsPath));
+    } catch (IOException e) {
+      System.err.printf("Cannot create output directory because: %s%n", e);
+      System.exit(-1);
+    }
+    NamedBuilder<?> nb = BuilderIndex.namedBuilder();
+    String taskDescription = String.format(
+        Locale.ROOT,
+        TASK_DESCRIPTION_TEMPLATE,
+        configuration.startTime + (configuration.nOfFrames + 1d) * configuration.deltaT);
+    System.out.printf(
+        "Going to generate and save %d images on %d threads.%n", descriptions.size(), configuration.nOfThreads);
+    ExecutorService executorService = Executors.newFixedThreadPool(configuration.nOfThreads);
+    List<Future<File>> futures = descriptions.stream()
+        .map(d -> executorService.submit(() -> write(nb, d, taskDescription, configuration)))
+        .toList();
+    int nOfErrors = 0;
+    for (int i = 0; i < futures.size(); i = i + 1) {
+      try {
+        System.out.printf("Image saved to %s.%n", futures.get(i).get());
+      } catch (ExecutionException e) {
+        System.err.printf("Cannot generate image for %s because: %s%n", descriptions.get(i).name(), e.getCause());
+        nOfErrors = nOfErrors + 1;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    executorService.shutdownNow();
+    System.out.printf("Done: %d images saved, %d errors.%n", descriptions.size() - nOfErrors, nOfErrors);
+  }
+
+  private static String name(String path) {
+    return Path.of(path).getFileName().toString().split("\\.")[0];
+  }
+
+  // files with the same name in different directories, or with different extensions, would write the same image,
+  // hence an index is appended to the names which are not unique
+  private static List<AgentDescription> withUniqueNames(List<AgentDescription> descriptions) {
+    Map<String, Long> counts =
+        descriptions.stream().collect(Collectors.groupingBy(AgentDescription::name, Collectors.counting()));
+    Map<String, Integer> indexes = new HashMap<>();
+    return descriptions.stream()
+        .map(d -> counts.get(d.name()) > 1
+            ? new AgentDescription(
+                "%s-%d".formatted(d.name(), indexes.merge(d.name(), 1, Integer::sum)), d.content())
+            : d)
+        .toList();
+  }
+
+  // each image is generated with its own engine, drawer, and task, hence different images can be generated concurrently
+  private static File write(
+      NamedBuilder<?> nb, AgentDescription description, String taskDescription, Configuration configuration)
+      throws IOException {
     @SuppressWarnings("unchecked")
     Function<String, Drawer> drawer = (Function<String, Drawer>) nb.build(DRAWER_DESCRIPTION);
     @SuppressWarnings("unchecked")
     Supplier<Engine> engine = (Supplier<Engine>) nb.build(ENGINE_DESCRIPTION);
     @SuppressWarnings("unchecked")
-    Task<Supplier<Agent>, ?, ?> task = (Task<Supplier<Agent>, ?, ?>) nb.build(TASK_DESCRIPTION);
-
-    System.out.printf("Going to generate and save %d images.%n", agentResourcePaths.size());
-    for (String agentResourcePath : agentResourcePaths) {
-      String name = agentResourcePath
-          .split("/")[agentResourcePath.split("/").length - 1]
-          .split("\\.")[0];
-      System.out.printf("Doing %s.%n", name);
-      //noinspection DataFlowIssue
-      try (InputStream inputStream = AgentImageWriter.class.getResourceAsStream(agentResourcePath);
-          BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
-        Supplier<Agent> agent = () -> (Agent) nb.build(br.lines().collect(Collectors.joining()));
-        FramesImageBuilder fib = new FramesImageBuilder(
-            W, H, N, D_T, T0, FramesImageBuilder.Direction.HORIZONTAL, true, drawer.apply(name));
-        task.run(agent, engine.get(), fib);
-        BufferedImage bufferedImage = fib.get();
-        File imgFile = new File(imgsPath + File.separator + name + ".png");
-        ImageIO.write(bufferedImage, "png", imgFile);
-        System.out.printf("Image saved to %s.%n", imgFile);
-      } catch (IOException e) {
-        System.err.printf("Cannot generate image for %s because: %s%n", agentResourcePath, e);
-      }
-    }
+    Task<Supplier<Agent>, ?, ?> task = (Task<Supplier<Agent>, ?, ?>) nb.build(taskDescription);
+    Supplier<Agent> agent = () -> (Agent) nb.build(description.content());
+    FramesImageBuilder fib = new FramesImageBuilder(
+        configuration.w,
+        configuration.h,
+        configuration.nOfFrames,
+        configuration.deltaT,
+        configuration.startTime,
+        FramesImageBuilder.Direction.HORIZONTAL,
+        true,
+        drawer.apply(description.name()));
+    task.run(agent, engine.get(), fib);
+    BufferedImage bufferedImage = fib.get();
+    File imgFile = new File(configuration.imgsPath + File.separator + description.name() + ".png");
+    ImageIO.write(bufferedImage, "png", imgFile);
+    return imgFile;
   }
 }
@@ -0,0 +1,176 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.Agent;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.actions.Sense;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.robotevo2d.main.util.ActionValues;
+import io.github.ericmedvet.robotevo2d.main.util.Centroids;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class EarlyStoppingTask<A, S extends AgentsObservation, O extends AgentsOutcome<S>> implements Task<A, S, O> {
+
+  // the stop times of the outcomes of the stopped simulations, which are the outcomes of the inner task
+  private static final Map<Object, Double> STOP_TS = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final Task<A, S, O> inner;
+  private final List<StoppingCriterion> criteria;
+  private final double minT;
+
+  public EarlyStoppingTask(Task<A, S, O> inner, List<StoppingCriterion> criteria, double minT) {
+    this.inner = inner;
+    this.criteria = criteria;
+    this.minT = minT;
+  }
+
+  private class Monitor implements Consumer<Snapshot> {
+    private final List<Predicate<StoppingCriterion.Progress>> predicates;
+    private double energy;
+    private double lastT;
+    private double stopT;
+    private StoppingCriterion.Progress first;
+    private StoppingCriterion.Progress last;
+
+    private Monitor() {
+      predicates = criteria.stream().map(StoppingCriterion::monitor).toList();
+      lastT = Double.NaN;
+      stopT = Double.NaN;
+    }
+
+    @Override
+    public void accept(Snapshot snapshot) {
+      double t = snapshot.t();
+      // energy is the actuation of the agents, i.e., the absolute values of their actions, but the sensing ones,
+      // integrated over time; actions performed by the task (e.g., for creating bodies) have no agent
+      double dT = Double.isNaN(lastT) ? 0 : t - lastT;
+      lastT = t;
+      for (ActionOutcome<?, ?> actionOutcome : snapshot.actionOutcomes()) {
+        Object action = actionOutcome.action();
+        if (actionOutcome.agent() == null || action instanceof Sense<?>) {
+          continue;
+        }
+        ActionValues actionValues = ActionValues.of(action.getClass());
+        for (int i = 0; i < actionValues.size(); i = i + 1) {
+          double value = actionValues.value(action, i);
+          if (!Double.isNaN(value)) {
+            energy = energy + dT * Math.abs(value);
+          }
+        }
+      }
+      List<Body> bodyParts = new ArrayList<>();
+      for (Agent agent : snapshot.agents()) {
+        if (agent instanceof EmbodiedAgent embodiedAgent) {
+          bodyParts.addAll(embodiedAgent.bodyParts());
+        }
+      }
+      Optional<Point> centroid = Centroids.of(bodyParts);
+      if (centroid.isEmpty()) {
+        return;
+      }
+      last = new StoppingCriterion.Progress(t, centroid.get().x(), centroid.get().y(), energy);
+      if (first == null) {
+        first = last;
+      }
+      boolean toStop = false;
+      for (Predicate<StoppingCriterion.Progress> predicate : predicates) {
+        toStop = predicate.test(last) || toStop;
+      }
+      if (toStop && t >= minT) {
+        stopT = t;
+      }
+    }
+
+    private boolean isStopped() {
+      return !Double.isNaN(stopT);
+    }
+  }
+
+  // NaN if the outcome is not the one of a stopped simulation
+  public static double stopT(Object outcome) {
+    Double stopT = STOP_TS.get(outcome);
+    return stopT == null ? Double.NaN : stopT;
+  }
+
+  // after the stop, the engine gives its time once more (e.g., for the key of the last observation of the inner task)
+  // and then an infinite time, so that the loop of the inner task ends as if the duration was reached
+  private static Engine stoppable(Engine engine, Monitor monitor) {
+    int[] nOfTCallsAfterStop = new int[] {0};
+    return (Engine) Proxy.newProxyInstance(
+        Engine.class.getClassLoader(), new Class<?>[] {Engine.class}, (proxy, method, args) -> {
+          if (monitor.isStopped() && method.getName().equals("t") && method.getParameterCount() == 0) {
+            nOfTCallsAfterStop[0] = nOfTCallsAfterStop[0] + 1;
+            if (nOfTCallsAfterStop[0] > 1) {
+              return Double.POSITIVE_INFINITY;
+            }
+          }
+          try {
+            return method.invoke(engine, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+        });
+  }
+
+  @Override
+  public O run(A a, Engine engine, Consumer<Snapshot> snapshotConsumer) {
+    Monitor monitor = new Monitor();
+    // snapshots after the stop, if any, are not consumed
+    O outcome = inner.run(a, stoppable(engine, monitor), s -> {
+      if (monitor.isStopped()) {
+        return;
+      }
+      if (snapshotConsumer != null) {
+        snapshotConsumer.accept(s);
+      }
+      monitor.accept(s);
+    });
+    if (monitor.first != null) {
+      criteria.forEach(c -> c.ended(monitor.first, monitor.last));
+    }
+    if (monitor.isStopped()) {
+      STOP_TS.put(outcome, monitor.stopT);
+    }
+    return outcome;
+  }
+
+  @Override
+  public String toString() {
+    return "earlyStopped[%s;%s]".formatted(inner, criteria);
+  }
+}
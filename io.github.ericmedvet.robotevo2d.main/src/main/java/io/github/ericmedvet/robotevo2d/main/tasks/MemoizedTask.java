@@ -0,0 +1,80 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.robotevo2d.main.util.KeyedSupplier;
+import io.github.ericmedvet.robotevo2d.main.util.LruCache;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+public class MemoizedTask<A, S extends AgentsObservation, O extends AgentsOutcome<S>> implements Task<A, S, O> {
+
+  public static final String CACHE_NAME = "fitness";
+  private static final Logger L = Logger.getLogger(MemoizedTask.class.getName());
+
+  private final Task<A, S, O> inner;
+  private final LruCache<Object, O> cache;
+  private final AtomicBoolean warned;
+
+  public MemoizedTask(Task<A, S, O> inner, int size) {
+    this.inner = inner;
+    // values are soft, so that the memory used by outcomes is reclaimed if needed
+    cache = new LruCache<>(CACHE_NAME, size, true);
+    warned = new AtomicBoolean(false);
+  }
+
+  public LruCache.Stats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public O run(A a, Engine engine, Consumer<Snapshot> snapshotConsumer) {
+    if (!(a instanceof KeyedSupplier<?> keyedSupplier)) {
+      // solutions are keyed only if they come from an er.m mapper and reach the task unchanged
+      if (!warned.getAndSet(true)) {
+        L.warning("Solutions of type %s are not keyed, hence they are never memoized"
+            .formatted(a.getClass().getSimpleName()));
+      }
+      return inner.run(a, engine, snapshotConsumer);
+    }
+    Optional<O> oOutcome = cache.get(keyedSupplier.key());
+    if (oOutcome.isPresent()) {
+      // no simulation is done, hence the snapshot consumer does not get any snapshot: consumers which affect the
+      // outcome (e.g., a recording task) have to be inside this task
+      return oOutcome.get();
+    }
+    O outcome = inner.run(a, engine, snapshotConsumer);
+    cache.put(keyedSupplier.key(), outcome);
+    return outcome;
+  }
+
+  @Override
+  public String toString() {
+    return "memoized[%s]".formatted(inner);
+  }
+}
@@ -0,0 +1,56 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.robotevo2d.main.util.AgentPool;
+import java.util.function.Consumer;
+
+public class PoolingTask<A, S extends AgentsObservation, O extends AgentsOutcome<S>> implements Task<A, S, O> {
+
+  private final Task<A, S, O> inner;
+
+  public PoolingTask(Task<A, S, O> inner) {
+    this.inner = inner;
+  }
+
+  @Override
+  public O run(A a, Engine engine, Consumer<Snapshot> snapshotConsumer) {
+    // agents borrowed outside of a scope are never released, since they might be still in use
+    if (!AgentPool.openScope()) {
+      return inner.run(a, engine, snapshotConsumer);
+    }
+    try {
+      return inner.run(a, engine, snapshotConsumer);
+    } finally {
+      AgentPool.closeScope();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "pooled[%s]".formatted(inner);
+  }
+}
@@ -0,0 +1,102 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryStore;
+import io.github.ericmedvet.robotevo2d.main.trajectories.TrajectoryWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+public class RecordingTask<A, S extends AgentsObservation, O extends AgentsOutcome<S>> implements Task<A, S, O> {
+
+  private static final Logger L = Logger.getLogger(RecordingTask.class.getName());
+
+  private final Task<A, S, O> inner;
+  private final TrajectoryStore store;
+  private final Function<? super O, ? extends Number> scoreFunction;
+  private final boolean maximize;
+  private final double dT;
+
+  public RecordingTask(
+      Task<A, S, O> inner,
+      TrajectoryStore store,
+      Function<? super O, ? extends Number> scoreFunction,
+      boolean maximize,
+      double dT) {
+    this.inner = inner;
+    this.store = store;
+    this.scoreFunction = scoreFunction;
+    this.maximize = maximize;
+    this.dT = dT;
+  }
+
+  @Override
+  public O run(A a, Engine engine, Consumer<Snapshot> snapshotConsumer) {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    TrajectoryWriter writer;
+    try {
+      writer = new TrajectoryWriter(Channels.newChannel(outputStream));
+    } catch (IOException e) {
+      L.warning("Cannot start recording due to %s".formatted(e));
+      return inner.run(a, engine, snapshotConsumer);
+    }
+    double[] nextT = new double[] {0};
+    boolean[] failed = new boolean[1];
+    Consumer<Snapshot> recorder = s -> {
+      if (failed[0] || s.t() < nextT[0]) {
+        return;
+      }
+      try {
+        writer.write(s);
+      } catch (IOException e) {
+        L.warning("Cannot record snapshot due to %s".formatted(e));
+        failed[0] = true;
+      }
+      nextT[0] = dT <= 0 ? s.t() : (Math.floor(s.t() / dT) + 1) * dT;
+    };
+    O outcome = inner.run(a, engine, snapshotConsumer == null ? recorder : recorder.andThen(snapshotConsumer));
+    try {
+      writer.close();
+    } catch (IOException e) {
+      failed[0] = true;
+    }
+    // no steps if the inner task did not simulate, e.g., because memoized
+    if (!failed[0] && writer.nOfSteps() > 0) {
+      double score = scoreFunction.apply(outcome).doubleValue();
+      store.offer(TrajectoryStore.key(a), maximize ? score : -score, outputStream.toByteArray());
+    }
+    return outcome;
+  }
+
+  @Override
+  public String toString() {
+    return "recorded[%s]".formatted(inner);
+  }
+}
@@ -0,0 +1,35 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import java.util.function.Predicate;
+
+public interface StoppingCriterion {
+
+  // x and y are of the centroid of the agents, energy is their actuation since the start
+  record Progress(double t, double x, double y, double energy) {}
+
+  // called once for each simulation: the returned monitor may hence be stateful
+  Predicate<Progress> monitor();
+
+  // called at the end of each simulation, either stopped or not
+  default void ended(Progress first, Progress last) {}
+}
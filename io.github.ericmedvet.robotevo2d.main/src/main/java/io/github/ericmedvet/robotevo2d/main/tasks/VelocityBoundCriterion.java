@@ -0,0 +1,110 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+public class VelocityBoundCriterion implements StoppingCriterion {
+
+  private final double duration;
+  private final double maxVelocity;
+  private final double threshold;
+  private final double percentile;
+  private final double[] bounds;
+  private int nOfBounds;
+
+  private VelocityBoundCriterion(
+      double duration, double maxVelocity, double threshold, double percentile, int size) {
+    this.duration = duration;
+    this.maxVelocity = maxVelocity;
+    this.threshold = threshold;
+    this.percentile = percentile;
+    bounds = new double[size];
+  }
+
+  public static VelocityBoundCriterion fixed(double duration, double maxVelocity, double threshold) {
+    return new VelocityBoundCriterion(duration, maxVelocity, threshold, Double.NaN, 0);
+  }
+
+  public static VelocityBoundCriterion percentile(
+      double duration, double maxVelocity, double percentile, int size) {
+    return new VelocityBoundCriterion(duration, maxVelocity, Double.NaN, percentile, size);
+  }
+
+  // the x velocity at the end of the simulation, if from now on the agent moved forward at maxVelocity
+  private double bound(Progress first, Progress progress) {
+    return (progress.x() - first.x() + maxVelocity * Math.max(0, duration - progress.t()))
+        / (duration - first.t());
+  }
+
+  @Override
+  public void ended(Progress first, Progress last) {
+    if (bounds.length == 0) {
+      return;
+    }
+    // stopped simulations contribute with their (optimistic) bound, completed ones with their actual velocity
+    double bound = bound(first, last);
+    synchronized (bounds) {
+      bounds[nOfBounds % bounds.length] = bound;
+      nOfBounds = nOfBounds + 1;
+    }
+  }
+
+  @Override
+  public Predicate<Progress> monitor() {
+    double currentThreshold = threshold();
+    return new Predicate<>() {
+      private Progress first;
+
+      @Override
+      public boolean test(Progress progress) {
+        if (first == null) {
+          first = progress;
+        }
+        return bound(first, progress) < currentThreshold;
+      }
+    };
+  }
+
+  private double threshold() {
+    if (bounds.length == 0) {
+      return threshold;
+    }
+    double[] sorted;
+    synchronized (bounds) {
+      // no simulation is stopped until enough of them have ended
+      if (nOfBounds < bounds.length) {
+        return Double.NEGATIVE_INFINITY;
+      }
+      sorted = Arrays.copyOf(bounds, bounds.length);
+    }
+    Arrays.sort(sorted);
+    return sorted[(int) Math.floor(percentile * (sorted.length - 1))];
+  }
+
+  @Override
+  public String toString() {
+    return bounds.length == 0
+        ? "velocityBound[v<%.2f]".formatted(threshold)
+        : "velocityBound[v<p%.0f]".formatted(percentile * 100);
+  }
+}
@@ -0,0 +1,121 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.robotevo2d.main.util.Centroids;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.util.List;
+
+// draws the bodies of the last snapshot as polygons, with the view centered on the bodies which move: bodies of
+// snapshots rebuilt from trajectories are drawn according to their kind, other bodies are considered movable
+public class TrajectoryDrawer {
+
+  private static final Color BACKGROUND_COLOR = Color.WHITE;
+  private static final Color STILL_FILL_COLOR = new Color(200, 200, 200);
+  private static final Color STROKE_COLOR = Color.DARK_GRAY;
+  private static final Color TEXT_COLOR = Color.BLACK;
+  private static final Color[] FILL_COLORS = new Color[] {
+    new Color(114, 158, 206),
+    new Color(255, 158, 74),
+    new Color(103, 191, 92),
+    new Color(237, 102, 93),
+    new Color(173, 139, 201),
+    new Color(168, 120, 110)
+  };
+
+  private final String title;
+  private final double viewWidth;
+  private Point center;
+
+  public TrajectoryDrawer(String title, double viewWidth) {
+    this.title = title;
+    this.viewWidth = viewWidth;
+    center = new Point(0, 0);
+  }
+
+  private static Color fillColor(Body body) {
+    if (body instanceof TrajectorySnapshot.PolyBody polyBody) {
+      return polyBody.movable()
+          ? FILL_COLORS[Math.floorMod(polyBody.kind().hashCode(), FILL_COLORS.length)]
+          : STILL_FILL_COLOR;
+    }
+    return FILL_COLORS[Math.floorMod(body.getClass().getSimpleName().hashCode(), FILL_COLORS.length)];
+  }
+
+  private static boolean isMovable(Body body) {
+    return !(body instanceof TrajectorySnapshot.PolyBody polyBody) || polyBody.movable();
+  }
+
+  public boolean draw(List<Snapshot> snapshots, Graphics2D g) {
+    if (snapshots.isEmpty()) {
+      return false;
+    }
+    Snapshot snapshot = snapshots.get(snapshots.size() - 1);
+    // update center, if there is something moving
+    center = Centroids.of(snapshot.bodies().stream().filter(TrajectoryDrawer::isMovable).toList())
+        .orElse(center);
+    // draw
+    Rectangle r = g.getClipBounds() != null
+        ? g.getClipBounds()
+        : g.getDeviceConfiguration().getBounds();
+    g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    g.setColor(BACKGROUND_COLOR);
+    g.fill(r);
+    AffineTransform originalTransform = g.getTransform();
+    double scale = r.getWidth() / viewWidth;
+    g.translate(r.getCenterX(), r.getCenterY());
+    g.scale(scale, -scale);
+    g.translate(-center.x(), -center.y());
+    g.setStroke(new BasicStroke((float) (1d / scale)));
+    for (Body body : snapshot.bodies()) {
+      Point[] vertexes = body.poly().vertexes();
+      Path2D path = new Path2D.Double();
+      for (int i = 0; i < vertexes.length; i = i + 1) {
+        if (i == 0) {
+          path.moveTo(vertexes[i].x(), vertexes[i].y());
+        } else {
+          path.lineTo(vertexes[i].x(), vertexes[i].y());
+        }
+      }
+      path.closePath();
+      g.setColor(fillColor(body));
+      g.fill(path);
+      g.setColor(STROKE_COLOR);
+      g.draw(path);
+    }
+    g.setTransform(originalTransform);
+    g.setColor(TEXT_COLOR);
+    g.drawString(
+        "%st=%6.2f".formatted(title.isEmpty() ? "" : title + " ", snapshot.t()),
+        r.x + 5,
+        r.y + 5 + g.getFontMetrics().getAscent());
+    return true;
+  }
+}
@@ -0,0 +1,46 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+// layout of trajectory files: all numbers are little endian, varints are LEB128, signed varints are zigzag-encoded
+public class TrajectoryFormat {
+
+  public static final int MAGIC = 0x54524A31; // TRJ1
+  public static final int VERSION = 1;
+  // defines a kind: kind id (varint), name (varint length, UTF-8 bytes)
+  public static final byte KIND = 'K';
+  // defines the bodies of the next steps: n (varint), then, for each body, kind id (varint) and n of vertexes (varint)
+  public static final byte LAYOUT = 'L';
+  // one step: t (float64), vertex coordinates for each body of the layout as signed varints of the difference
+  // between their float32 bits and the ones of the previous step (0 after a layout), n of actions (varint), then, for
+  // each action, agent id (varint), kind id (varint), n of values (varint), values (float32)
+  public static final byte STEP = 'S';
+
+  private TrajectoryFormat() {}
+
+  static int zigZag(int n) {
+    return (n << 1) ^ (n >> 31);
+  }
+
+  static int unZigZag(int n) {
+    return (n >>> 1) ^ -(n & 1);
+  }
+}
@@ -0,0 +1,174 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class TrajectoryReader implements Iterator<TrajectoryStep> {
+
+  private final ByteBuffer buffer;
+  private final List<String> kinds;
+  private int[] bodyKinds;
+  private int[] bodyNOfVertexes;
+  private int[] lastBits;
+  private boolean[] movable;
+  private boolean firstAfterLayout;
+
+  public TrajectoryReader(Path filePath) throws IOException {
+    this(Files.readAllBytes(filePath));
+  }
+
+  public TrajectoryReader(byte[] bytes) throws IOException {
+    buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    kinds = new ArrayList<>();
+    bodyKinds = new int[0];
+    bodyNOfVertexes = new int[0];
+    lastBits = new int[0];
+    movable = new boolean[0];
+    if (buffer.remaining() < 8 || buffer.getInt() != TrajectoryFormat.MAGIC) {
+      throw new IOException("Not a trajectory");
+    }
+    int version = buffer.getInt();
+    if (version != TrajectoryFormat.VERSION) {
+      throw new IOException("Unsupported trajectory version %d".formatted(version));
+    }
+  }
+
+  private String kind(int id) {
+    if (id < 0 || id >= kinds.size()) {
+      throw new IllegalStateException("Undefined kind %d".formatted(id));
+    }
+    return kinds.get(id);
+  }
+
+  private int getVarInt() {
+    int value = 0;
+    int shift = 0;
+    while (true) {
+      byte b = buffer.get();
+      value = value | ((b & 0x7F) << shift);
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+      shift = shift + 7;
+    }
+  }
+
+  @Override
+  public boolean hasNext() {
+    try {
+      return skipDefinitions();
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("Truncated trajectory file", e);
+    }
+  }
+
+  // consumes definitions up to the next step
+  private boolean skipDefinitions() {
+    while (buffer.hasRemaining()) {
+      byte tag = buffer.get(buffer.position());
+      if (tag == TrajectoryFormat.STEP) {
+        return true;
+      }
+      buffer.get();
+      if (tag == TrajectoryFormat.KIND) {
+        int id = getVarInt();
+        byte[] bytes = new byte[getVarInt()];
+        buffer.get(bytes);
+        if (id != kinds.size()) {
+          throw new IllegalStateException("Unexpected kind id %d".formatted(id));
+        }
+        kinds.add(new String(bytes, StandardCharsets.UTF_8));
+      } else if (tag == TrajectoryFormat.LAYOUT) {
+        int n = getVarInt();
+        bodyKinds = new int[n];
+        bodyNOfVertexes = new int[n];
+        for (int i = 0; i < n; i = i + 1) {
+          bodyKinds[i] = getVarInt();
+          bodyNOfVertexes[i] = getVarInt();
+        }
+        lastBits = new int[2 * Arrays.stream(bodyNOfVertexes).sum()];
+        movable = new boolean[n];
+        firstAfterLayout = true;
+      } else {
+        throw new IllegalStateException("Unexpected record tag %d".formatted(tag));
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public TrajectoryStep next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    try {
+      buffer.get();
+      double t = buffer.getDouble();
+      List<TrajectoryStep.Body> bodies = new ArrayList<>(bodyKinds.length);
+      int c = 0;
+      for (int i = 0; i < bodyKinds.length; i = i + 1) {
+        double[] xs = new double[bodyNOfVertexes[i]];
+        double[] ys = new double[bodyNOfVertexes[i]];
+        boolean moved = false;
+        for (int j = 0; j < xs.length; j = j + 1) {
+          int dX = TrajectoryFormat.unZigZag(getVarInt());
+          int dY = TrajectoryFormat.unZigZag(getVarInt());
+          moved = moved || dX != 0 || dY != 0;
+          lastBits[c] = lastBits[c] + dX;
+          lastBits[c + 1] = lastBits[c + 1] + dY;
+          xs[j] = Float.intBitsToFloat(lastBits[c]);
+          ys[j] = Float.intBitsToFloat(lastBits[c + 1]);
+          c = c + 2;
+        }
+        // the first step after a layout is a delta from zero, hence it does not count as a movement
+        movable[i] = movable[i] || (moved && !firstAfterLayout);
+        bodies.add(new TrajectoryStep.Body(kind(bodyKinds[i]), xs, ys, movable[i]));
+      }
+      firstAfterLayout = false;
+      int nOfActions = getVarInt();
+      List<TrajectoryStep.Action> actions = new ArrayList<>(nOfActions);
+      for (int i = 0; i < nOfActions; i = i + 1) {
+        int agentId = getVarInt();
+        String kind = kind(getVarInt());
+        double[] values = new double[getVarInt()];
+        for (int j = 0; j < values.length; j = j + 1) {
+          values[j] = buffer.getFloat();
+        }
+        actions.add(new TrajectoryStep.Action(agentId, kind, values));
+      }
+      return new TrajectoryStep(t, bodies, actions);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalStateException("Truncated trajectory file", e);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.Agent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.util.List;
+
+// a snapshot rebuilt from a recorded step, or copied from a live one: bodies are plain polygons, agents and actions
+// are not kept
+public record TrajectorySnapshot(
+    double t, List<Body> bodies, List<Agent> agents, List<ActionOutcome<?, ?>> actionOutcomes)
+    implements Snapshot {
+
+  public record PolyBody(String kind, Poly poly, boolean movable) implements Body {
+    // angle, velocity, and mass are not recorded
+    @Override
+    public double angle() {
+      return 0;
+    }
+
+    @Override
+    public Point centerLinearVelocity() {
+      return new Point(0, 0);
+    }
+
+    @Override
+    public double mass() {
+      return 0;
+    }
+  }
+
+  public static TrajectorySnapshot from(TrajectoryStep step) {
+    return new TrajectorySnapshot(
+        step.t(),
+        step.bodies().stream()
+            .map(b -> (Body) new PolyBody(b.kind(), poly(b.xs(), b.ys()), b.movable()))
+            .toList(),
+        List.of(),
+        List.of());
+  }
+
+  // copies the polygons of the bodies of a live snapshot, which the engine changes as the simulation goes on
+  public static TrajectorySnapshot of(Snapshot snapshot) {
+    return new TrajectorySnapshot(
+        snapshot.t(),
+        snapshot.bodies().stream()
+            .map(b -> (Body) new PolyBody(
+                b.getClass().getSimpleName(), new Poly(b.poly().vertexes().clone()), true))
+            .toList(),
+        List.of(),
+        List.of());
+  }
+
+  private static Poly poly(double[] xs, double[] ys) {
+    Point[] points = new Point[xs.length];
+    for (int i = 0; i < points.length; i = i + 1) {
+      points[i] = new Point(xs[i], ys[i]);
+    }
+    return new Poly(points);
+  }
+}
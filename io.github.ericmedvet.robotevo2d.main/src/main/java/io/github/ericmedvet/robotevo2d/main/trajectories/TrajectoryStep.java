@@ -0,0 +1,30 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import java.util.List;
+
+public record TrajectoryStep(double t, List<Body> bodies, List<Action> actions) {
+  // movable is true if the body moved at least once since the last layout change
+  public record Body(String kind, double[] xs, double[] ys, boolean movable) {}
+
+  public record Action(int agentId, String kind, double[] values) {}
+}
@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import io.github.ericmedvet.robotevo2d.main.util.KeyedSupplier;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// keeps in memory the recorded trajectories of the k solutions with the largest scores; stores are weakly
+// referenced, hence they last as long as the task which records on them, i.e., one run
+public class TrajectoryStore {
+
+  private static final Set<TrajectoryStore> STORES = Collections.synchronizedSet(
+      Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private record Entry(Object key, double score, byte[] bytes) {}
+
+  private final String name;
+  private final int capacity;
+  private final Map<Object, Entry> entries;
+  private final PriorityQueue<Entry> worstFirst;
+
+  private TrajectoryStore(String name, int capacity) {
+    this.name = name;
+    this.capacity = capacity;
+    entries = new HashMap<>();
+    worstFirst = new PriorityQueue<>(Comparator.comparingDouble(Entry::score));
+  }
+
+  public static TrajectoryStore create(String name, int capacity) {
+    TrajectoryStore store = new TrajectoryStore(name, capacity);
+    STORES.add(store);
+    return store;
+  }
+
+  // looks for the trajectory in the live stores with the given name, i.e., in the ones of the tasks of all the runs
+  public static Optional<byte[]> find(String name, Object key) {
+    List<TrajectoryStore> stores;
+    synchronized (STORES) {
+      stores = STORES.stream().filter(s -> s.name.equals(name)).toList();
+    }
+    return stores.stream()
+        .map(s -> s.get(key))
+        .flatMap(Optional::stream)
+        .findFirst();
+  }
+
+  public static Object key(Object solution) {
+    return solution instanceof KeyedSupplier<?> keyedSupplier ? keyedSupplier.key() : solution;
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    worstFirst.clear();
+  }
+
+  public synchronized Optional<byte[]> get(Object key) {
+    return Optional.ofNullable(entries.get(key)).map(Entry::bytes);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public synchronized boolean offer(Object key, double score, byte[] bytes) {
+    Entry existing = entries.get(key);
+    if (existing != null) {
+      if (existing.score() >= score) {
+        return false;
+      }
+      entries.remove(key);
+      worstFirst.remove(existing);
+    }
+    if (entries.size() >= capacity) {
+      if (worstFirst.isEmpty() || worstFirst.peek().score() >= score) {
+        return false;
+      }
+      entries.remove(worstFirst.poll().key());
+    }
+    Entry entry = new Entry(key, score, bytes);
+    entries.put(key, entry);
+    worstFirst.add(entry);
+    return true;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,221 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.actions.Sense;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.robotevo2d.main.util.ActionValues;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+public class TrajectoryWriter implements Closeable {
+
+  private static final int MIN_BUFFER_SIZE = 1 << 16;
+
+  private final WritableByteChannel channel;
+  private final Map<String, Integer> kinds;
+  private final Map<Class<?>, Integer> classKinds;
+  private final Map<Object, Integer> agents;
+  private ByteBuffer buffer;
+  private int[] bodyKinds;
+  private int[] bodyNOfVertexes;
+  private int[] lastBits;
+  private Point[][] stepVertexes;
+  private int[] stepKinds;
+  private int[] stepNOfVertexes;
+  private long nOfSteps;
+
+  public TrajectoryWriter(Path filePath) throws IOException {
+    this(FileChannel.open(
+        filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+  }
+
+  public TrajectoryWriter(WritableByteChannel channel) throws IOException {
+    this.channel = channel;
+    kinds = new HashMap<>();
+    classKinds = new HashMap<>();
+    agents = new IdentityHashMap<>();
+    buffer = ByteBuffer.allocate(MIN_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    bodyKinds = new int[0];
+    bodyNOfVertexes = new int[0];
+    lastBits = new int[0];
+    stepVertexes = new Point[0][];
+    stepKinds = new int[0];
+    stepNOfVertexes = new int[0];
+    buffer.putInt(TrajectoryFormat.MAGIC);
+    buffer.putInt(TrajectoryFormat.VERSION);
+    flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+    channel.close();
+  }
+
+  private void ensureCapacity(int nOfBytes) {
+    if (buffer.remaining() < nOfBytes) {
+      ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + nOfBytes))
+          .order(ByteOrder.LITTLE_ENDIAN);
+      buffer.flip();
+      newBuffer.put(buffer);
+      buffer = newBuffer;
+    }
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private int kind(Class<?> type) {
+    Integer id = classKinds.get(type);
+    if (id == null) {
+      id = kind(type.getSimpleName());
+      classKinds.put(type, id);
+    }
+    return id;
+  }
+
+  private int kind(String name) {
+    Integer id = kinds.get(name);
+    if (id == null) {
+      id = kinds.size();
+      kinds.put(name, id);
+      byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+      ensureCapacity(11 + bytes.length);
+      buffer.put(TrajectoryFormat.KIND);
+      putVarInt(id);
+      putVarInt(bytes.length);
+      buffer.put(bytes);
+    }
+    return id;
+  }
+
+  public long nOfSteps() {
+    return nOfSteps;
+  }
+
+  private void putVarInt(int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value = value >>> 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  public void write(Snapshot snapshot) throws IOException {
+    // polygons are read once, since bodies build them on each call; arrays are reused across steps
+    int nOfBodies = 0;
+    for (Body body : snapshot.bodies()) {
+      if (nOfBodies == stepVertexes.length) {
+        int newLength = Math.max(16, 2 * stepVertexes.length);
+        stepVertexes = Arrays.copyOf(stepVertexes, newLength);
+        stepKinds = Arrays.copyOf(stepKinds, newLength);
+        stepNOfVertexes = Arrays.copyOf(stepNOfVertexes, newLength);
+      }
+      stepVertexes[nOfBodies] = body.poly().vertexes();
+      stepKinds[nOfBodies] = kind(body.getClass());
+      stepNOfVertexes[nOfBodies] = stepVertexes[nOfBodies].length;
+      nOfBodies = nOfBodies + 1;
+    }
+    // check if the bodies changed and, if so, write a new layout
+    if (!Arrays.equals(stepKinds, 0, nOfBodies, bodyKinds, 0, bodyKinds.length)
+        || !Arrays.equals(stepNOfVertexes, 0, nOfBodies, bodyNOfVertexes, 0, bodyNOfVertexes.length)) {
+      bodyKinds = Arrays.copyOf(stepKinds, nOfBodies);
+      bodyNOfVertexes = Arrays.copyOf(stepNOfVertexes, nOfBodies);
+      lastBits = new int[2 * Arrays.stream(bodyNOfVertexes).sum()];
+      ensureCapacity(1 + 5 + 10 * nOfBodies);
+      buffer.put(TrajectoryFormat.LAYOUT);
+      putVarInt(nOfBodies);
+      for (int i = 0; i < nOfBodies; i = i + 1) {
+        putVarInt(bodyKinds[i]);
+        putVarInt(bodyNOfVertexes[i]);
+      }
+    }
+    // kinds of actions have to be defined before the step; sensing actions are not recorded
+    int nOfActions = 0;
+    for (ActionOutcome<?, ?> actionOutcome : snapshot.actionOutcomes()) {
+      if (!(actionOutcome.action() instanceof Sense<?>)) {
+        kind(actionOutcome.action().getClass());
+        nOfActions = nOfActions + 1;
+      }
+    }
+    // write vertexes
+    ensureCapacity(1 + 8 + 5 * lastBits.length);
+    buffer.put(TrajectoryFormat.STEP);
+    buffer.putDouble(snapshot.t());
+    int c = 0;
+    for (int i = 0; i < nOfBodies; i = i + 1) {
+      for (Point point : stepVertexes[i]) {
+        c = putDelta(c, point.x());
+        c = putDelta(c, point.y());
+      }
+      stepVertexes[i] = null;
+    }
+    // write actions
+    ensureCapacity(5);
+    putVarInt(nOfActions);
+    for (ActionOutcome<?, ?> actionOutcome : snapshot.actionOutcomes()) {
+      Object action = actionOutcome.action();
+      if (action instanceof Sense<?>) {
+        continue;
+      }
+      int agentId = agents.computeIfAbsent(actionOutcome.agent(), a -> agents.size());
+      ActionValues actionValues = ActionValues.of(action.getClass());
+      ensureCapacity(15 + 4 * actionValues.size());
+      putVarInt(agentId);
+      putVarInt(kind(action.getClass()));
+      putVarInt(actionValues.size());
+      for (int i = 0; i < actionValues.size(); i = i + 1) {
+        buffer.putFloat((float) actionValues.value(action, i));
+      }
+    }
+    nOfSteps = nOfSteps + 1;
+    if (buffer.position() >= MIN_BUFFER_SIZE / 2) {
+      flush();
+    }
+  }
+
+  private int putDelta(int c, double value) {
+    int bits = Float.floatToRawIntBits((float) value);
+    putVarInt(TrajectoryFormat.zigZag(bits - lastBits[c]));
+    lastBits[c] = bits;
+    return c + 1;
+  }
+}
@@ -0,0 +1,82 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// reads the numeric components of record actions through method handles built once per class
+public class ActionValues {
+
+  private static final Map<Class<?>, ActionValues> INSTANCES = new ConcurrentHashMap<>();
+  private static final MethodType ACCESSOR_TYPE = MethodType.methodType(double.class, Object.class);
+
+  private final MethodHandle[] handles;
+
+  private ActionValues(MethodHandle[] handles) {
+    this.handles = handles;
+  }
+
+  public static ActionValues of(Class<?> actionClass) {
+    return INSTANCES.computeIfAbsent(actionClass, ActionValues::build);
+  }
+
+  private static ActionValues build(Class<?> actionClass) {
+    if (!actionClass.isRecord()) {
+      return new ActionValues(new MethodHandle[0]);
+    }
+    List<MethodHandle> handles = new ArrayList<>();
+    for (RecordComponent component : actionClass.getRecordComponents()) {
+      Class<?> type = component.getType();
+      if (type.equals(double.class) || type.equals(float.class) || type.equals(int.class)) {
+        Method accessor = component.getAccessor();
+        // non-public actions are read only if reflection is allowed
+        if (accessor.trySetAccessible()) {
+          try {
+            handles.add(MethodHandles.lookup().unreflect(accessor).asType(ACCESSOR_TYPE));
+          } catch (IllegalAccessException e) {
+            // not readable, hence skipped
+          }
+        }
+      }
+    }
+    return new ActionValues(handles.toArray(MethodHandle[]::new));
+  }
+
+  public int size() {
+    return handles.length;
+  }
+
+  public double value(Object action, int index) {
+    try {
+      return (double) handles[index].invokeExact(action);
+    } catch (Throwable t) {
+      return Double.NaN;
+    }
+  }
+}
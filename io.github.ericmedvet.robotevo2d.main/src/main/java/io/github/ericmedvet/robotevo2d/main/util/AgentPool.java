@@ -0,0 +1,148 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+public class AgentPool<K, A> {
+
+  private static final Map<String, Counters> GLOBAL_COUNTERS = new ConcurrentHashMap<>();
+  // borrowed agents are tracked, and later released, only within a scope opened on the thread by a pooling task
+  private static final ThreadLocal<Deque<Runnable>> BORROWED = new ThreadLocal<>();
+
+  private final String name;
+  private final int capacity;
+  private final ThreadLocal<Deque<Entry<K, A>>> free;
+  private final Counters counters;
+  private final Counters globalCounters;
+
+  public AgentPool(String name, int capacity) {
+    this.name = name;
+    this.capacity = capacity;
+    free = ThreadLocal.withInitial(ArrayDeque::new);
+    counters = new Counters();
+    globalCounters = GLOBAL_COUNTERS.computeIfAbsent(name, n -> new Counters());
+  }
+
+  private record Entry<K, A>(K key, A agent) {}
+
+  private static class Counters {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private void hit() {
+      hits.increment();
+    }
+
+    private void miss() {
+      misses.increment();
+    }
+
+    private LruCache.Stats stats() {
+      return new LruCache.Stats(hits.sum(), misses.sum());
+    }
+  }
+
+  // returns false if a scope is already open on this thread, i.e., in case of nested pooling tasks
+  public static boolean openScope() {
+    if (BORROWED.get() != null) {
+      return false;
+    }
+    BORROWED.set(new ArrayDeque<>());
+    return true;
+  }
+
+  public static void closeScope() {
+    Deque<Runnable> borrowed = BORROWED.get();
+    BORROWED.remove();
+    if (borrowed != null) {
+      borrowed.forEach(Runnable::run);
+    }
+  }
+
+  public static LruCache.Stats stats(String name) {
+    Counters globalCounters = GLOBAL_COUNTERS.get(name);
+    return globalCounters == null ? new LruCache.Stats(0, 0) : globalCounters.stats();
+  }
+
+  public A get(K key, Supplier<? extends A> factory, Predicate<? super A> reuser) {
+    if (capacity <= 0) {
+      return factory.get();
+    }
+    A agent = null;
+    Iterator<Entry<K, A>> iterator = free.get().iterator();
+    while (iterator.hasNext()) {
+      Entry<K, A> entry = iterator.next();
+      if (entry.key().equals(key)) {
+        iterator.remove();
+        // if the agent cannot be reused, it is just dropped
+        if (reuser.test(entry.agent())) {
+          agent = entry.agent();
+        }
+        break;
+      }
+    }
+    if (agent != null) {
+      counters.hit();
+      globalCounters.hit();
+    } else {
+      counters.miss();
+      globalCounters.miss();
+      agent = factory.get();
+    }
+    // the agent goes back to the pool of this thread when the scope is closed, i.e., the evaluation is over
+    Deque<Runnable> borrowed = BORROWED.get();
+    if (borrowed != null) {
+      A borrowedAgent = agent;
+      borrowed.addLast(() -> release(key, borrowedAgent));
+    }
+    return agent;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  private void release(K key, A agent) {
+    Deque<Entry<K, A>> entries = free.get();
+    entries.addFirst(new Entry<>(key, agent));
+    if (entries.size() > capacity) {
+      entries.removeLast();
+    }
+  }
+
+  public LruCache.Stats stats() {
+    return counters.stats();
+  }
+
+  @Override
+  public String toString() {
+    LruCache.Stats stats = stats();
+    return "%s[capacity=%d;hits=%d;misses=%d]".formatted(name, capacity, stats.hits(), stats.misses());
+  }
+}
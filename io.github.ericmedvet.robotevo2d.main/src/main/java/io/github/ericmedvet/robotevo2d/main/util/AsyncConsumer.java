@@ -0,0 +1,105 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+public class AsyncConsumer<T> implements Consumer<T> {
+
+  private static final Logger L = Logger.getLogger(AsyncConsumer.class.getName());
+  private static final Object END = new Object();
+
+  private final Consumer<? super T> inner;
+  private final String name;
+  private final int capacity;
+  private BlockingQueue<Object> queue;
+  private Thread thread;
+
+  public AsyncConsumer(Consumer<? super T> inner, String name, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1: %d found".formatted(capacity));
+    }
+    this.inner = inner;
+    this.name = name;
+    this.capacity = capacity;
+  }
+
+  @Override
+  public synchronized void accept(T t) {
+    if (thread == null) {
+      start();
+    }
+    try {
+      // blocks the producer when the consumer is late
+      queue.put(t);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      L.warning("Interrupted while queuing an item for %s".formatted(name));
+    }
+  }
+
+  // waits for all the queued items to be consumed; a later accept() starts a new consuming thread
+  public synchronized void close() {
+    if (thread == null) {
+      return;
+    }
+    try {
+      queue.put(END);
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      L.warning("Interrupted while waiting for %s to complete".formatted(name));
+    }
+    thread = null;
+    queue = null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void consume(BlockingQueue<Object> queue) {
+    while (true) {
+      Object item;
+      try {
+        item = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (item == END) {
+        return;
+      }
+      try {
+        inner.accept((T) item);
+      } catch (RuntimeException e) {
+        L.warning("Cannot consume item in %s due to %s".formatted(name, e));
+      }
+    }
+  }
+
+  private void start() {
+    BlockingQueue<Object> localQueue = new ArrayBlockingQueue<>(capacity);
+    queue = localQueue;
+    thread = new Thread(() -> consume(localQueue), name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
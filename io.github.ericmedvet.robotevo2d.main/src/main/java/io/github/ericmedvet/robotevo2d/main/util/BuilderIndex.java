@@ -0,0 +1,175 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+// index of the @Discoverable classes, built at build time, for skipping the classpath scan of discovery at startup
+public class BuilderIndex {
+
+  public static final String RESOURCE_NAME = "/robotevo2d-builder-index.txt";
+  public static final String DISABLING_PROPERTY_NAME = "robotevo2d.builderIndex.disabled";
+
+  private static final Logger L = Logger.getLogger(BuilderIndex.class.getName());
+  private static final String PACKAGE_PREFIX = "io/github/ericmedvet/";
+  private static final String SEPARATOR = "\t";
+
+  private record Entry(String prefixTemplate, String className) {}
+
+  private BuilderIndex() {}
+
+  private static List<String> classNames(Path classpathEntry) throws IOException {
+    List<String> names = new ArrayList<>();
+    if (Files.isDirectory(classpathEntry)) {
+      try (Stream<Path> paths = Files.walk(classpathEntry)) {
+        paths.map(p -> classpathEntry.relativize(p).toString().replace(File.separatorChar, '/'))
+            .filter(BuilderIndex::isCandidate)
+            .forEach(n -> names.add(toClassName(n)));
+      }
+    } else if (classpathEntry.toString().endsWith(".jar") && Files.isRegularFile(classpathEntry)) {
+      try (JarFile jarFile = new JarFile(classpathEntry.toFile())) {
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+          String name = entries.nextElement().getName();
+          if (isCandidate(name)) {
+            names.add(toClassName(name));
+          }
+        }
+      }
+    }
+    return names;
+  }
+
+  private static NamedBuilder<Object> fromIndex(List<Entry> entries) throws ClassNotFoundException {
+    NamedBuilder<Object> namedBuilder = NamedBuilder.empty();
+    for (Entry entry : entries) {
+      Class<?> c = Class.forName(entry.className());
+      // classes without public constructors are utility classes with static builder methods
+      NamedBuilder<Object> classNamedBuilder =
+          c.getConstructors().length == 0 ? NamedBuilder.fromUtilityClass(c) : NamedBuilder.fromClass(c);
+      List<String> levels = Arrays.asList(entry.prefixTemplate().split("\\."));
+      for (int i = levels.size() - 1; i >= 0; i = i - 1) {
+        classNamedBuilder = NamedBuilder.empty().and(List.of(levels.get(i).split("\\|")), classNamedBuilder);
+      }
+      namedBuilder = namedBuilder.and(classNamedBuilder);
+    }
+    return namedBuilder;
+  }
+
+  private static boolean isCandidate(String path) {
+    return path.startsWith(PACKAGE_PREFIX)
+        && path.endsWith(".class")
+        && !path.matches(".*\\$[0-9].*")
+        && !path.endsWith("module-info.class")
+        && !path.endsWith("package-info.class");
+  }
+
+  // usage: BuilderIndex <output file>; scans the classpath of the current JVM, hence it has to be run in a new JVM
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.printf("Usage: %s <output file>%n", BuilderIndex.class.getName());
+      System.exit(-1);
+    }
+    List<String> lines = new ArrayList<>();
+    for (String classpathEntry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+      for (String className : classNames(Path.of(classpathEntry))) {
+        try {
+          Discoverable discoverable =
+              Class.forName(className, false, BuilderIndex.class.getClassLoader())
+                  .getAnnotation(Discoverable.class);
+          if (discoverable != null) {
+            lines.add(discoverable.prefixTemplate() + SEPARATOR + className);
+          }
+        } catch (ClassNotFoundException | LinkageError e) {
+          // classes depending on optional libraries are skipped
+        }
+      }
+    }
+    // an empty index means that the scanned classpath is not the one of the project, e.g., the one of a launcher
+    if (lines.isEmpty()) {
+      System.err.printf(
+          "No discoverable classes found on classpath %s%n", System.getProperty("java.class.path"));
+      System.exit(-1);
+    }
+    lines.sort(String::compareTo);
+    Path outputPath = Path.of(args[0]);
+    if (outputPath.getParent() != null) {
+      Files.createDirectories(outputPath.getParent());
+    }
+    Files.write(outputPath, lines, StandardCharsets.UTF_8);
+    System.out.printf("%d discoverable classes written on %s%n", lines.size(), outputPath);
+  }
+
+  public static NamedBuilder<Object> namedBuilder() {
+    if (!Boolean.getBoolean(DISABLING_PROPERTY_NAME)) {
+      try {
+        Optional<List<Entry>> entries = read();
+        if (entries.isPresent()) {
+          return fromIndex(entries.get());
+        }
+        L.fine("No builder index: using discovery");
+      } catch (IOException | ClassNotFoundException | RuntimeException e) {
+        L.warning("Cannot use builder index due to %s: using discovery".formatted(e));
+      }
+    }
+    return NamedBuilder.fromDiscovery();
+  }
+
+  private static Optional<List<Entry>> read() throws IOException {
+    InputStream inputStream = BuilderIndex.class.getResourceAsStream(RESOURCE_NAME);
+    if (inputStream == null) {
+      return Optional.empty();
+    }
+    List<Entry> entries = new ArrayList<>();
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = br.readLine()) != null) {
+        String[] pieces = line.split(SEPARATOR);
+        if (pieces.length == 2) {
+          entries.add(new Entry(pieces[0], pieces[1]));
+        }
+      }
+    }
+    return entries.isEmpty() ? Optional.empty() : Optional.of(entries);
+  }
+
+  private static String toClassName(String path) {
+    return path.substring(0, path.length() - ".class".length()).replace('/', '.');
+  }
+}
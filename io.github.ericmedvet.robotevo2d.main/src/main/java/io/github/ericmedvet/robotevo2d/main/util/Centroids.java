@@ -0,0 +1,45 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import java.util.Optional;
+
+public class Centroids {
+
+  private Centroids() {}
+
+  // mean of the vertexes of the bodies, empty if there are none
+  public static Optional<Point> of(Iterable<? extends Body> bodies) {
+    double sumX = 0;
+    double sumY = 0;
+    int n = 0;
+    for (Body body : bodies) {
+      for (Point vertex : body.poly().vertexes()) {
+        sumX = sumX + vertex.x();
+        sumY = sumY + vertex.y();
+      }
+      n = n + body.poly().vertexes().length;
+    }
+    return n == 0 ? Optional.empty() : Optional.of(new Point(sumX / n, sumY / n));
+  }
+}
@@ -0,0 +1,93 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+// pipes raw BGR frames to the stdin of an external ffmpeg process
+class FfmpegVideoWriter implements VideoWriter {
+
+  private final Path filePath;
+  private final int w;
+  private final int h;
+  private final Process process;
+  private final OutputStream outputStream;
+
+  FfmpegVideoWriter(String ffmpegPath, Path filePath, int w, int h, double frameRate) throws IOException {
+    this.filePath = filePath;
+    this.w = w;
+    this.h = h;
+    process = new ProcessBuilder(List.of(
+            ffmpegPath,
+            "-y",
+            "-loglevel",
+            "error",
+            "-f",
+            "rawvideo",
+            "-pix_fmt",
+            "bgr24",
+            "-s",
+            "%dx%d".formatted(w, h),
+            "-r",
+            String.format(Locale.ROOT, "%f", frameRate),
+            "-i",
+            "-",
+            "-c:v",
+            "libx264",
+            "-pix_fmt",
+            "yuv420p",
+            filePath.toString()))
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    outputStream = new BufferedOutputStream(process.getOutputStream(), 3 * w * h);
+  }
+
+  @Override
+  public void close() throws IOException {
+    outputStream.close();
+    try {
+      int exitValue = process.waitFor();
+      if (exitValue != 0) {
+        throw new IOException("ffmpeg exited with %d while writing %s".formatted(exitValue, filePath));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      process.destroy();
+      throw new IOException("Interrupted while waiting for ffmpeg", e);
+    }
+  }
+
+  @Override
+  public void write(BufferedImage image) throws IOException {
+    if (image.getType() != BufferedImage.TYPE_3BYTE_BGR || image.getWidth() != w || image.getHeight() != h) {
+      throw new IllegalArgumentException("Wrong image: %dx%d BGR expected".formatted(w, h));
+    }
+    outputStream.write(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+  }
+}
@@ -0,0 +1,161 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class LruCache<K, V> {
+
+  private static final Map<String, Counters> GLOBAL_COUNTERS = new ConcurrentHashMap<>();
+
+  private final String name;
+  private final int capacity;
+  private final boolean softValues;
+  private final Map<K, Supplier<V>> map;
+  private final Counters counters;
+  private final Counters globalCounters;
+
+  public LruCache(String name, int capacity, boolean softValues) {
+    this.name = name;
+    this.capacity = capacity;
+    this.softValues = softValues;
+    map = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Supplier<V>> eldest) {
+        return size() > LruCache.this.capacity;
+      }
+    };
+    counters = new Counters();
+    globalCounters = GLOBAL_COUNTERS.computeIfAbsent(name, n -> new Counters());
+  }
+
+  public LruCache(String name, int capacity) {
+    this(name, capacity, false);
+  }
+
+  public record Stats(long hits, long misses) {
+    public double hitRate() {
+      return hits + misses == 0 ? 0d : (double) hits / (double) (hits + misses);
+    }
+  }
+
+  private static class Counters {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private void hit() {
+      hits.increment();
+    }
+
+    private void miss() {
+      misses.increment();
+    }
+
+    private Stats stats() {
+      return new Stats(hits.sum(), misses.sum());
+    }
+  }
+
+  public static Stats stats(String name) {
+    Counters globalCounters = GLOBAL_COUNTERS.get(name);
+    return globalCounters == null ? new Stats(0, 0) : globalCounters.stats();
+  }
+
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+    if (capacity <= 0) {
+      return function.apply(key);
+    }
+    Optional<V> oValue = get(key);
+    if (oValue.isPresent()) {
+      return oValue.get();
+    }
+    // computed outside the lock: concurrent misses on the same key may compute the value more than once
+    V value = function.apply(key);
+    put(key, value);
+    return value;
+  }
+
+  public Optional<V> get(K key) {
+    if (capacity <= 0) {
+      return Optional.empty();
+    }
+    V value;
+    synchronized (map) {
+      Supplier<V> valueSupplier = map.get(key);
+      value = valueSupplier == null ? null : valueSupplier.get();
+      if (valueSupplier != null && value == null) {
+        // soft value has been collected
+        map.remove(key);
+      }
+    }
+    if (value != null) {
+      counters.hit();
+      globalCounters.hit();
+      return Optional.of(value);
+    }
+    counters.miss();
+    globalCounters.miss();
+    return Optional.empty();
+  }
+
+  public void put(K key, V value) {
+    if (capacity <= 0 || value == null) {
+      return;
+    }
+    Supplier<V> valueSupplier = softValues ? new SoftReference<>(value)::get : () -> value;
+    synchronized (map) {
+      map.put(key, valueSupplier);
+    }
+  }
+
+  public void clear() {
+    synchronized (map) {
+      map.clear();
+    }
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public int size() {
+    synchronized (map) {
+      return map.size();
+    }
+  }
+
+  public Stats stats() {
+    return counters.stats();
+  }
+
+  @Override
+  public String toString() {
+    Stats stats = stats();
+    return "%s[size=%d/%d;hits=%d;misses=%d]".formatted(name, size(), capacity, stats.hits(), stats.misses());
+  }
+}
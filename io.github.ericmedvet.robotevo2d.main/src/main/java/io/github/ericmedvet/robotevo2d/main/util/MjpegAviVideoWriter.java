@@ -0,0 +1,190 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import javax.imageio.ImageIO;
+
+// writes an AVI file with MJPEG frames: frames are appended as they come, headers are patched at close
+class MjpegAviVideoWriter implements VideoWriter {
+
+  private static final int HEADER_SIZE = 224;
+  private static final int TOTAL_FRAMES_POSITION = 48;
+  private static final int STREAM_LENGTH_POSITION = 140;
+  private static final int MOVI_SIZE_POSITION = 216;
+  private static final int MOVI_POSITION = 220;
+  private static final int AVIF_HASINDEX = 0x10;
+  private static final int AVIIF_KEYFRAME = 0x10;
+
+  private final FileChannel channel;
+  private final ByteArrayOutputStream frameBytes;
+  private final ByteBuffer chunkHeader;
+  private final OutputStream outputStream;
+  private int[] frameSizes;
+  private int nOfFrames;
+  private int maxFrameSize;
+
+  MjpegAviVideoWriter(Path filePath, int w, int h, double frameRate) throws IOException {
+    channel = FileChannel.open(
+        filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    outputStream = Channels.newOutputStream(channel);
+    frameBytes = new ByteArrayOutputStream(w * h);
+    chunkHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    frameSizes = new int[1024];
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    putFourCc(header, "RIFF");
+    header.putInt(0); // patched at close
+    putFourCc(header, "AVI ");
+    putFourCc(header, "LIST");
+    header.putInt(192);
+    putFourCc(header, "hdrl");
+    putFourCc(header, "avih");
+    header.putInt(56);
+    header.putInt((int) Math.round(1000000d / frameRate));
+    header.putInt(0);
+    header.putInt(0);
+    header.putInt(AVIF_HASINDEX);
+    header.putInt(0); // total frames, patched at close
+    header.putInt(0);
+    header.putInt(1);
+    header.putInt(0);
+    header.putInt(w);
+    header.putInt(h);
+    header.put(new byte[16]);
+    putFourCc(header, "LIST");
+    header.putInt(116);
+    putFourCc(header, "strl");
+    putFourCc(header, "strh");
+    header.putInt(56);
+    putFourCc(header, "vids");
+    putFourCc(header, "MJPG");
+    header.putInt(0);
+    header.putShort((short) 0);
+    header.putShort((short) 0);
+    header.putInt(0);
+    header.putInt(1000);
+    header.putInt((int) Math.round(frameRate * 1000d));
+    header.putInt(0);
+    header.putInt(0); // length, patched at close
+    header.putInt(0);
+    header.putInt(-1);
+    header.putInt(0);
+    header.putShort((short) 0);
+    header.putShort((short) 0);
+    header.putShort((short) w);
+    header.putShort((short) h);
+    putFourCc(header, "strf");
+    header.putInt(40);
+    header.putInt(40);
+    header.putInt(w);
+    header.putInt(h);
+    header.putShort((short) 1);
+    header.putShort((short) 24);
+    putFourCc(header, "MJPG");
+    header.putInt(w * h * 3);
+    header.putInt(0);
+    header.putInt(0);
+    header.putInt(0);
+    header.putInt(0);
+    putFourCc(header, "LIST");
+    header.putInt(0); // movi size, patched at close
+    putFourCc(header, "movi");
+    writeFully(header.flip());
+  }
+
+  private static void putFourCc(ByteBuffer buffer, String fourCc) {
+    buffer.put(fourCc.getBytes(StandardCharsets.US_ASCII));
+  }
+
+  @Override
+  public void close() throws IOException {
+    // write index
+    ByteBuffer index = ByteBuffer.allocate(8 + 16 * nOfFrames).order(ByteOrder.LITTLE_ENDIAN);
+    putFourCc(index, "idx1");
+    index.putInt(16 * nOfFrames);
+    int offset = 4;
+    for (int i = 0; i < nOfFrames; i = i + 1) {
+      putFourCc(index, "00dc");
+      index.putInt(AVIIF_KEYFRAME);
+      index.putInt(offset);
+      index.putInt(frameSizes[i]);
+      offset = offset + 8 + padded(frameSizes[i]);
+    }
+    long moviEnd = channel.position();
+    writeFully(index.flip());
+    // patch sizes
+    patch(4, (int) (channel.size() - 8));
+    patch(TOTAL_FRAMES_POSITION, nOfFrames);
+    patch(STREAM_LENGTH_POSITION, nOfFrames);
+    patch(TOTAL_FRAMES_POSITION + 12, maxFrameSize);
+    patch(MOVI_SIZE_POSITION, (int) (moviEnd - MOVI_POSITION));
+    channel.close();
+  }
+
+  private void patch(long position, int value) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+    channel.write(buffer.flip(), position);
+  }
+
+  private static int padded(int size) {
+    return size + (size % 2);
+  }
+
+  @Override
+  public void write(BufferedImage image) throws IOException {
+    frameBytes.reset();
+    if (!ImageIO.write(image, "jpg", frameBytes)) {
+      throw new IOException("No JPEG encoder available");
+    }
+    int size = frameBytes.size();
+    chunkHeader.clear();
+    putFourCc(chunkHeader, "00dc");
+    chunkHeader.putInt(size);
+    writeFully(chunkHeader.flip());
+    frameBytes.writeTo(outputStream);
+    if (size % 2 != 0) {
+      writeFully(ByteBuffer.allocate(1));
+    }
+    if (nOfFrames == frameSizes.length) {
+      frameSizes = Arrays.copyOf(frameSizes, frameSizes.length * 2);
+    }
+    frameSizes[nOfFrames] = size;
+    nOfFrames = nOfFrames + 1;
+    maxFrameSize = Math.max(maxFrameSize, size);
+  }
+
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
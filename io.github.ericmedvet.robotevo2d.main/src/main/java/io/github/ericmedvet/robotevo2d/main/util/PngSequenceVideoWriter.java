@@ -0,0 +1,48 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import javax.imageio.ImageIO;
+
+// writes each frame as a numbered png file in a directory
+class PngSequenceVideoWriter implements VideoWriter {
+
+  private final Path dirPath;
+  private int nOfFrames;
+
+  PngSequenceVideoWriter(Path dirPath) throws IOException {
+    this.dirPath = dirPath;
+    Files.createDirectories(dirPath);
+  }
+
+  @Override
+  public void close() {}
+
+  @Override
+  public void write(BufferedImage image) throws IOException {
+    ImageIO.write(image, "png", dirPath.resolve("frame-%06d.png".formatted(nOfFrames)).toFile());
+    nOfFrames = nOfFrames + 1;
+  }
+}
@@ -0,0 +1,70 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// gives deep copies of an object, which is serialized once and deserialized at each get(): only objects whose
+// whole graph is serializable have a prototype
+public class Prototype<T> implements Supplier<T> {
+
+  private final byte[] bytes;
+
+  private Prototype(byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  public static <T> Optional<Prototype<T>> of(T t) {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+      oos.writeObject(t);
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+    Prototype<T> prototype = new Prototype<>(baos.toByteArray());
+    // objects which serialize but do not deserialize (e.g., without a proper constructor) are detected here
+    try {
+      prototype.get();
+    } catch (RuntimeException e) {
+      return Optional.empty();
+    }
+    return Optional.of(prototype);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public T get() {
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (T) ois.readObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.viewer.Drawer;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+// draws snapshots on one reused image and streams it to a video writer, hence memory does not grow with duration
+public class StreamingVideoBuilder implements Consumer<Snapshot> {
+
+  private static final Logger L = Logger.getLogger(StreamingVideoBuilder.class.getName());
+
+  private final Supplier<VideoWriter> videoWriterSupplier;
+  private final double frameRate;
+  private final double startTime;
+  private final double endTime;
+  private final Drawer drawer;
+  private final BufferedImage image;
+  private VideoWriter videoWriter;
+  private int nOfFrames;
+  private boolean failed;
+
+  public StreamingVideoBuilder(
+      Supplier<VideoWriter> videoWriterSupplier,
+      int w,
+      int h,
+      double frameRate,
+      double startTime,
+      double endTime,
+      Drawer drawer) {
+    this.videoWriterSupplier = videoWriterSupplier;
+    this.frameRate = frameRate;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.drawer = drawer;
+    image = new BufferedImage(w, h, BufferedImage.TYPE_3BYTE_BGR);
+  }
+
+  @Override
+  public void accept(Snapshot snapshot) {
+    if (failed || snapshot.t() < frameTime(nOfFrames) || snapshot.t() > endTime) {
+      return;
+    }
+    if (videoWriter == null) {
+      videoWriter = videoWriterSupplier.get();
+      if (videoWriter == null) {
+        failed = true;
+        return;
+      }
+    }
+    Graphics2D g = image.createGraphics();
+    try {
+      drawer.draw(List.of(snapshot), g);
+    } finally {
+      g.dispose();
+    }
+    try {
+      // the same image is repeated if the simulation is coarser than the video
+      while (snapshot.t() >= frameTime(nOfFrames)) {
+        videoWriter.write(image);
+        nOfFrames = nOfFrames + 1;
+      }
+    } catch (IOException e) {
+      L.warning("Cannot write video frame due to %s".formatted(e));
+      failed = true;
+    }
+  }
+
+  public int close() {
+    int n = nOfFrames;
+    if (videoWriter != null) {
+      try {
+        videoWriter.close();
+      } catch (IOException e) {
+        L.warning("Cannot close video due to %s".formatted(e));
+      }
+    }
+    videoWriter = null;
+    nOfFrames = 0;
+    failed = false;
+    return n;
+  }
+
+  private double frameTime(int frameIndex) {
+    return startTime + frameIndex / frameRate;
+  }
+}
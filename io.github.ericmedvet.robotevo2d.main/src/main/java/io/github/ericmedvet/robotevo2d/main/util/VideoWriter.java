@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+public interface VideoWriter {
+
+  String MJPEG_EXTENSION = ".avi";
+
+  enum Encoder {
+    AUTO,
+    FFMPEG,
+    MJPEG,
+    PNG
+  }
+
+  void close() throws IOException;
+
+  void write(BufferedImage image) throws IOException;
+
+  static boolean isFfmpegAvailable(String ffmpegPath) {
+    try {
+      Process process = new ProcessBuilder(ffmpegPath, "-version")
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .redirectError(ProcessBuilder.Redirect.DISCARD)
+          .start();
+      return process.waitFor(10, TimeUnit.SECONDS) && process.exitValue() == 0;
+    } catch (IOException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  // MJPEG can only be written in an AVI container, hence any other extension is replaced; PNG frames are written in a
+  // directory, hence the extension is removed
+  static Path filePath(Encoder encoder, Path filePath) {
+    if (!encoder.equals(Encoder.MJPEG) && !encoder.equals(Encoder.PNG)) {
+      return filePath;
+    }
+    String extension = encoder.equals(Encoder.MJPEG) ? MJPEG_EXTENSION : "";
+    String fileName = filePath.getFileName().toString();
+    int dotIndex = fileName.lastIndexOf('.');
+    if (encoder.equals(Encoder.MJPEG) ? fileName.toLowerCase().endsWith(MJPEG_EXTENSION) : dotIndex <= 0) {
+      return filePath;
+    }
+    Path newFilePath =
+        filePath.resolveSibling((dotIndex > 0 ? fileName.substring(0, dotIndex) : fileName) + extension);
+    Logger.getLogger(VideoWriter.class.getName())
+        .warning("%s video saved on %s instead of %s".formatted(encoder, newFilePath, filePath));
+    return newFilePath;
+  }
+
+  static VideoWriter of(Encoder encoder, Path filePath, int w, int h, double frameRate, String ffmpegPath)
+      throws IOException {
+    encoder = resolve(encoder, ffmpegPath);
+    return switch (encoder) {
+      case FFMPEG -> new FfmpegVideoWriter(ffmpegPath, filePath, w, h, frameRate);
+      case MJPEG -> new MjpegAviVideoWriter(filePath(encoder, filePath), w, h, frameRate);
+      case PNG -> new PngSequenceVideoWriter(filePath(encoder, filePath));
+      case AUTO -> throw new IllegalStateException("Unresolved encoder");
+    };
+  }
+
+  static Encoder resolve(Encoder encoder, String ffmpegPath) {
+    if (!encoder.equals(Encoder.AUTO)) {
+      return encoder;
+    }
+    if (isFfmpegAvailable(ffmpegPath)) {
+      return Encoder.FFMPEG;
+    }
+    Logger.getLogger(VideoWriter.class.getName())
+        .info("%s not available: using pure-Java MJPEG encoding".formatted(ffmpegPath));
+    return Encoder.MJPEG;
+  }
+}
@@ -22,6 +22,7 @@ module io.github.ericmedvet.robotevo2d.main {
   requires io.github.ericmedvet.jgea.experimenter;
   requires java.desktop;
   requires java.logging;
+  requires jdk.management;
   requires io.github.ericmedvet.mrsim2d.core;
   requires io.github.ericmedvet.mrsim2d.viewer;
   requires io.github.ericmedvet.mrsim2d.buildable;
@@ -40,7 +41,11 @@ module io.github.ericmedvet.robotevo2d.main {
       io.github.ericmedvet.jnb.core;
 
   exports io.github.ericmedvet.robotevo2d.main;
+  exports io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
   exports io.github.ericmedvet.robotevo2d.main.helper;
+  exports io.github.ericmedvet.robotevo2d.main.tasks;
+  exports io.github.ericmedvet.robotevo2d.main.trajectories;
+  exports io.github.ericmedvet.robotevo2d.main.util;
 
   opens io.github.ericmedvet.robotevo2d.main.dynamicalsystems to
       io.github.ericmedvet.jnb.core;
@@ -0,0 +1,68 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.builders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import io.github.ericmedvet.jgea.core.InvertibleMapper;
+import io.github.ericmedvet.jgea.core.representation.sequence.integer.IntString;
+import io.github.ericmedvet.mrsim2d.buildable.builders.ReactiveVoxels;
+import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.ReactiveGridVSR;
+import io.github.ericmedvet.robotevo2d.main.util.KeyedSupplier;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class MappersTest {
+
+  private static Object key(Supplier<ReactiveGridVSR> supplier) {
+    return ((KeyedSupplier<ReactiveGridVSR>) supplier).key();
+  }
+
+  private static IntString genotype(Integer... genes) {
+    return new IntString(List.of(genes), 0, 2);
+  }
+
+  @Test
+  void reactiveGridVsrKeysArePhenotypeBased() {
+    InvertibleMapper<IntString, Supplier<ReactiveGridVSR>> mapper =
+        Mappers.isToReactiveGridVsr(InvertibleMapper.identity(), 2, 2, List.of(ReactiveVoxels::ph), 10);
+    Object k1 = key(mapper.apply(genotype(1, 1, 0, 0)));
+    Object k2 = key(mapper.apply(genotype(1, 1, 0, 0)));
+    // same body, shifted on the grid
+    Object k3 = key(mapper.apply(genotype(0, 0, 1, 1)));
+    Object k4 = key(mapper.apply(genotype(1, 0, 0, 0)));
+    assertEquals(k1, k2);
+    assertEquals(k1.hashCode(), k2.hashCode());
+    assertEquals(k1, k3);
+    assertNotEquals(k1, k4);
+  }
+
+  @Test
+  void keysOfDifferentMappersDiffer() {
+    InvertibleMapper<IntString, Supplier<ReactiveGridVSR>> mapper1 =
+        Mappers.isToReactiveGridVsr(InvertibleMapper.identity(), 2, 2, List.of(ReactiveVoxels::ph), 10);
+    InvertibleMapper<IntString, Supplier<ReactiveGridVSR>> mapper2 =
+        Mappers.isToReactiveGridVsr(InvertibleMapper.identity(), 2, 2, List.of(ReactiveVoxels::ph), 10);
+    assertNotEquals(key(mapper1.apply(genotype(1, 1, 0, 0))), key(mapper2.apply(genotype(1, 1, 0, 0))));
+  }
+}
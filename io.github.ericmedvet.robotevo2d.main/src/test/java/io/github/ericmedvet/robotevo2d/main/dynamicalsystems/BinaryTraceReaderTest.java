@@ -0,0 +1,111 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryTraceReaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static void write(Path path, boolean singlePrecision, boolean append, int firstRow, int nOfRows)
+      throws IOException {
+    BinaryRowWriter writer = new BinaryRowWriter(path.toString(), List.of("a", "b", "c"), singlePrecision, append);
+    for (int i = firstRow; i < firstRow + nOfRows; i = i + 1) {
+      writer.write(new double[] {i, i * 0.1, -i / 3d});
+    }
+    writer.close();
+  }
+
+  @Test
+  void doublesAreReadBackExactly() throws IOException {
+    Path path = tempDir.resolve("trace.bin");
+    write(path, false, false, 0, 10000);
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(List.of("a", "b", "c"), reader.names());
+      assertEquals(10000, reader.nOfRows());
+      for (int i = 0; i < 10000; i = i + 1) {
+        assertEquals(i, reader.get(i, 0));
+        assertEquals(i * 0.1, reader.column("b").get(i));
+        assertEquals(-i / 3d, reader.column(2).get(i));
+      }
+    }
+  }
+
+  @Test
+  void floatsAreReadBackAsFloats() throws IOException {
+    Path path = tempDir.resolve("trace.bin");
+    write(path, true, false, 0, 100);
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(100, reader.nOfRows());
+      for (int i = 0; i < 100; i = i + 1) {
+        assertEquals((float) (i * 0.1), reader.get(i, 1));
+      }
+    }
+  }
+
+  @Test
+  void appendedRowsFollowExistingOnes() throws IOException {
+    Path path = tempDir.resolve("trace.bin");
+    write(path, false, false, 0, 5);
+    write(path, false, true, 5, 7);
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(12, reader.nOfRows());
+      assertEquals(
+          List.of(0d, 1d, 2d, 3d, 4d, 5d, 6d, 7d, 8d, 9d, 10d, 11d),
+          reader.column("a").stream().boxed().toList());
+    }
+  }
+
+  @Test
+  void rowsOfAnUnclosedWriterAreReadBack() throws IOException {
+    Path path = tempDir.resolve("trace.bin");
+    BinaryRowWriter writer = new BinaryRowWriter(path.toString(), List.of("a", "b", "c"), false, false);
+    for (int i = 0; i < 10; i = i + 1) {
+      writer.write(new double[] {i, i * 0.1, -i / 3d});
+    }
+    writer.flush();
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(10, reader.nOfRows());
+      assertEquals(9, reader.get(9, 0));
+    }
+    writer.close();
+  }
+
+  @Test
+  void appendingWithOtherColumnsFails() throws IOException {
+    Path path = tempDir.resolve("trace.bin");
+    write(path, false, false, 0, 5);
+    assertThrows(IOException.class, () -> new BinaryRowWriter(path.toString(), List.of("a", "b"), false, true));
+    assertThrows(
+        IOException.class, () -> new BinaryRowWriter(path.toString(), List.of("a", "b", "d"), false, true));
+    assertThrows(
+        IOException.class, () -> new BinaryRowWriter(path.toString(), List.of("a", "b", "c"), true, true));
+  }
+}
@@ -0,0 +1,101 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.ericmedvet.jsdynsym.core.numerical.MultivariateRealFunction;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IOSaverTest {
+
+  private static final IOSaver.Settings SETTINGS = new IOSaver.Settings(
+      IOSaver.Format.FLOAT64, false, 0, IOSaver.Backpressure.BLOCK, false, false, false, 1, 0, 0, 0);
+
+  @TempDir
+  Path tempDir;
+
+  private static void simulate(Path path, IOSaver.Session session, double offset) {
+    IOSaver<?> saver = new IOSaver<>(
+        MultivariateRealFunction.from(xs -> new double[] {xs[0] + xs[1]}, 2, 1),
+        path.toString(),
+        0,
+        1,
+        SETTINGS,
+        session);
+    for (int i = 0; i <= 10; i = i + 1) {
+      saver.step(i / 10d, new double[] {offset + i, 2 * i});
+    }
+  }
+
+  @Test
+  void rowsAreReadBack() throws IOException {
+    Path path = tempDir.resolve("io.bin");
+    simulate(path, new IOSaver.Session(), 0);
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(List.of("index", "t", "x1", "x2", "y1"), reader.names());
+      assertEquals(11, reader.nOfRows());
+      for (int i = 0; i <= 10; i = i + 1) {
+        assertEquals(i / 10d, reader.column("t").get(i));
+        assertEquals(i, reader.column("x1").get(i));
+        assertEquals(3 * i, reader.column("y1").get(i));
+      }
+    }
+  }
+
+  @Test
+  void saversOfTheSameSessionAppend() throws IOException {
+    Path path = tempDir.resolve("io.bin");
+    IOSaver.Session session = new IOSaver.Session();
+    simulate(path, session, 0);
+    simulate(path, session, 100);
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(22, reader.nOfRows());
+      assertEquals(1, reader.column("index").get(0));
+      assertEquals(2, reader.column("index").get(21));
+    }
+  }
+
+  @Test
+  void asyncWithoutBufferIsRejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new IOSaver.Settings(
+            IOSaver.Format.CSV, true, 0, IOSaver.Backpressure.BLOCK, false, false, false, 1, 0, 0, 0));
+  }
+
+  @Test
+  void newSessionOverwrites() throws IOException {
+    Path path = tempDir.resolve("io.bin");
+    simulate(path, new IOSaver.Session(), 0);
+    simulate(path, new IOSaver.Session(), 100);
+    try (BinaryTraceReader reader = new BinaryTraceReader(path)) {
+      assertEquals(11, reader.nOfRows());
+      assertEquals(100, reader.column("x1").get(0));
+      assertEquals(1, reader.column("index").get(0));
+    }
+  }
+}
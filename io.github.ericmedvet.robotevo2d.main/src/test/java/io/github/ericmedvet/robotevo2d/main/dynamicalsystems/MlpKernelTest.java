@@ -0,0 +1,97 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class MlpKernelTest {
+
+  // fma and the reduction over lanes change the order of the operations, hence results are not bit-identical
+  private static final double AFFINE_EPSILON = 1e-12;
+  // lanewise tanh is not Math.tanh
+  private static final double TANH_EPSILON = 1e-14;
+  private static final int[] SIZES = {1, 2, 3, 7, 8, 10, 33, 100};
+
+  private static final MlpKernel SCALAR = new MlpKernel.Scalar();
+
+  // the vector kernel is there only with the vector profile, and usable only with the vector module
+  private static Optional<MlpKernel> vectorKernel() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of((MlpKernel) Class.forName(MlpKernel.class.getPackageName() + ".VectorMlpKernel")
+          .getDeclaredConstructor()
+          .newInstance());
+    } catch (ReflectiveOperationException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Test
+  void affineOfVectorKernelIsTheScalarOne() {
+    Optional<MlpKernel> oVector = vectorKernel();
+    assumeTrue(oVector.isPresent());
+    Random random = new Random(1);
+    for (int nOfInputs : SIZES) {
+      for (int nOfOutputs : SIZES) {
+        int offset = random.nextInt(5);
+        double[] params =
+            random.doubles(offset + (nOfInputs + 1) * nOfOutputs, -1, 1).toArray();
+        double[] in = random.doubles(nOfInputs, -10, 10).toArray();
+        double[] scalarOut = new double[nOfOutputs];
+        double[] vectorOut = new double[nOfOutputs];
+        SCALAR.affine(params, offset, in, scalarOut, nOfOutputs);
+        oVector.get().affine(params, offset, in, vectorOut, nOfOutputs);
+        assertArrayEquals(scalarOut, vectorOut, AFFINE_EPSILON * nOfInputs);
+      }
+    }
+  }
+
+  @Test
+  void activationsOfVectorKernelAreTheScalarOnes() {
+    Optional<MlpKernel> oVector = vectorKernel();
+    assumeTrue(oVector.isPresent());
+    Random random = new Random(1);
+    for (MultiLayerPerceptron.ActivationFunction activationFunction :
+        MultiLayerPerceptron.ActivationFunction.values()) {
+      for (int size : SIZES) {
+        double[] scalarValues = random.doubles(size, -5, 5).toArray();
+        double[] vectorValues = Arrays.copyOf(scalarValues, size);
+        SCALAR.activate(activationFunction, scalarValues);
+        oVector.get().activate(activationFunction, vectorValues);
+        if (activationFunction.equals(MultiLayerPerceptron.ActivationFunction.TANH)) {
+          assertArrayEquals(scalarValues, vectorValues, TANH_EPSILON);
+        } else {
+          assertArrayEquals(scalarValues, vectorValues);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import io.github.ericmedvet.jgea.core.representation.NamedMultivariateRealFunction;
+import io.github.ericmedvet.jgea.core.representation.tree.Tree;
+import io.github.ericmedvet.jgea.core.representation.tree.numeric.Element;
+import io.github.ericmedvet.jgea.core.representation.tree.numeric.TreeBasedMultivariateRealFunction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class TreeCompilerTest {
+
+  private static final List<String> X_VAR_NAMES = List.of("x0", "x1", "x2");
+  private static final List<String> Y_VAR_NAMES = List.of("y0", "y1", "y2");
+
+  private static void assertSameOutputs(
+      List<Tree<Element>> trees, Function<Double, Double> postOperator, Random random) {
+    NamedMultivariateRealFunction interpreted =
+        new TreeBasedMultivariateRealFunction(trees, X_VAR_NAMES, Y_VAR_NAMES, postOperator);
+    NamedMultivariateRealFunction compiled = TreeCompiler.compile(trees, X_VAR_NAMES, Y_VAR_NAMES, postOperator);
+    for (int i = 0; i < 100; i = i + 1) {
+      double[] input = random.doubles(X_VAR_NAMES.size(), -5, 5).toArray();
+      // also zeros, to hit the protected operators and the sign of zero
+      if (i % 4 == 0) {
+        input[random.nextInt(input.length)] = random.nextBoolean() ? 0d : -0d;
+      }
+      assertArrayEquals(interpreted.compute(input), compiled.compute(input));
+    }
+  }
+
+  private static Tree<Element> tree(int depth, Random random) {
+    if (depth == 0 || random.nextDouble() < 0.2) {
+      if (random.nextBoolean()) {
+        return Tree.of(new Element.Variable(X_VAR_NAMES.get(random.nextInt(X_VAR_NAMES.size()))));
+      }
+      return Tree.of(new Element.Constant(
+          switch (random.nextInt(4)) {
+            case 0 -> 0d;
+            case 1 -> -0d;
+            default -> random.nextGaussian();
+          }));
+    }
+    Element.Operator[] operators = Element.Operator.values();
+    Element.Operator operator = operators[random.nextInt(operators.length)];
+    List<Tree<Element>> children = new ArrayList<>();
+    for (int i = 0; i < operator.arity(); i = i + 1) {
+      children.add(tree(depth - 1, random));
+    }
+    return Tree.of(operator, children);
+  }
+
+  @Test
+  void compiledTreesGiveTheSameOutputsOfInterpretedOnes() {
+    Random random = new Random(1);
+    for (int i = 0; i < 200; i = i + 1) {
+      List<Tree<Element>> trees = List.of(tree(6, random), tree(6, random), tree(6, random));
+      assertSameOutputs(trees, x -> x, random);
+      assertSameOutputs(trees, Math::tanh, random);
+    }
+  }
+
+  @Test
+  void compiledTreesWithRepeatedSubtreesGiveTheSameOutputsOfInterpretedOnes() {
+    Random random = new Random(2);
+    for (int i = 0; i < 50; i = i + 1) {
+      Tree<Element> subtree = tree(4, random);
+      List<Tree<Element>> trees = List.of(
+          Tree.of(Element.Operator.ADDITION, List.of(subtree, subtree)),
+          Tree.of(Element.Operator.MULTIPLICATION, List.of(subtree, tree(4, random))),
+          subtree);
+      assertSameOutputs(trees, Math::tanh, random);
+    }
+  }
+}
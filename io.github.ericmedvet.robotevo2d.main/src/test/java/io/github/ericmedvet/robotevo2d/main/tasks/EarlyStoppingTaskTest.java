@@ -0,0 +1,76 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class EarlyStoppingTaskTest {
+
+  private static final double DURATION = 5;
+  // with no weights, the MLP gives constant outputs, hence the agent does not walk
+  private static final String AGENT = "s.a.centralizedNumGridVSR(body = s.a.vsr.gridBody(sensorizingFunction ="
+      + " s.a.vsr.sf.uniform(sensors = [s.s.a()]); shape = s.a.vsr.s.biped(w = 4; h = 3)); function ="
+      + " ds.num.mlp())";
+  private static final String TASK = "s.task.locomotion(duration = %f; terrain = s.t.flat())".formatted(DURATION);
+  private static final String ENGINE = "sim.engine()";
+
+  private static double[] run(String criterion) {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    @SuppressWarnings("unchecked")
+    Task<Supplier<EmbodiedAgent>, AgentsObservation, AgentsOutcome<AgentsObservation>> inner =
+        (Task<Supplier<EmbodiedAgent>, AgentsObservation, AgentsOutcome<AgentsObservation>>) nb.build(TASK);
+    @SuppressWarnings("unchecked")
+    Supplier<Engine> engine = (Supplier<Engine>) nb.build(ENGINE);
+    EarlyStoppingTask<Supplier<EmbodiedAgent>, AgentsObservation, AgentsOutcome<AgentsObservation>> task =
+        new EarlyStoppingTask<>(inner, List.of((StoppingCriterion) nb.build(criterion)), 1);
+    double[] lastT = new double[] {Double.NaN};
+    AgentsOutcome<AgentsObservation> outcome =
+        task.run(() -> (EmbodiedAgent) nb.build(AGENT), engine.get(), s -> lastT[0] = s.t());
+    return new double[] {EarlyStoppingTask.stopT(outcome), lastT[0]};
+  }
+
+  @Test
+  void stalledAgentIsStopped() {
+    double[] ts = run("er.sc.stall(window = 1; minDistance = 100)");
+    // no snapshots after the stop
+    assertEquals(ts[1], ts[0]);
+    assertTrue(ts[0] >= 1 && ts[0] < DURATION);
+  }
+
+  @Test
+  void agentIsNotStoppedIfNoCriterionHolds() {
+    double[] ts = run("er.sc.stall(window = 1; minDistance = 0)");
+    assertTrue(Double.isNaN(ts[0]));
+    assertTrue(ts[1] >= DURATION - 0.1);
+  }
+}
@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+
+package io.github.ericmedvet.robotevo2d.main.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.ericmedvet.jgea.core.InvertibleMapper;
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.CentralizedNumGridVSR;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.robotevo2d.main.builders.Mappers;
+import io.github.ericmedvet.robotevo2d.main.util.AgentPool;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class PoolingTaskTest {
+
+  private static final String MAPPER_TEMPLATE = "er.m.ndsToFixedBodyCentralizedVSR(body = s.a.vsr.gridBody("
+      + "sensorizingFunction = s.a.vsr.sf.uniform(sensors = [s.s.a(); s.s.rv(a = 0)]); shape = s.a.vsr.s.biped(w ="
+      + " 4; h = 3)); of = ea.m.dsToNpnds(npnds = %s); poolSize = 1)";
+  private static final String TASK = "s.task.locomotion(duration = 2; terrain = s.t.flat())";
+  private static final String ENGINE = "sim.engine()";
+  private static final String FITNESS = "s.f.outcome.faXVelocity()";
+
+  private static List<Double> genotype(int size, Random random) {
+    return random.doubles(size, -1, 1).boxed().toList();
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void checkReusedAgentHasSameFitnessOfFreshOne(String npnds) {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    InvertibleMapper<List<Double>, Supplier<CentralizedNumGridVSR>> mapper =
+        (InvertibleMapper<List<Double>, Supplier<CentralizedNumGridVSR>>) nb.build(MAPPER_TEMPLATE.formatted(npnds));
+    Task<Supplier<CentralizedNumGridVSR>, ?, ? extends AgentsOutcome<?>> task =
+        (Task<Supplier<CentralizedNumGridVSR>, ?, ? extends AgentsOutcome<?>>) nb.build(TASK);
+    Supplier<Engine> engine = (Supplier<Engine>) nb.build(ENGINE);
+    Function<AgentsOutcome<?>, Double> fitness = (Function<AgentsOutcome<?>, Double>) nb.build(FITNESS);
+    PoolingTask pooledTask = new PoolingTask(task);
+    Random random = new Random(1);
+    int size = mapper.exampleFor(null).size();
+    List<Double> g1 = genotype(size, random);
+    List<Double> g2 = genotype(size, random);
+    // outside a pooling task, agents are never given back to the pool
+    double freshFitness = fitness.apply(task.run(mapper.apply(g1), engine.get(), s -> {}));
+    long hits = AgentPool.stats(Mappers.AGENT_POOL_NAME).hits();
+    pooledTask.run(mapper.apply(g2), engine.get(), s -> {});
+    assertEquals(hits, AgentPool.stats(Mappers.AGENT_POOL_NAME).hits());
+    // the agent used for g2, with its brain state after the simulation, is reused for g1
+    double reusedFitness = fitness.apply((AgentsOutcome<?>) pooledTask.run(mapper.apply(g1), engine.get(), s -> {}));
+    assertEquals(hits + 1, AgentPool.stats(Mappers.AGENT_POOL_NAME).hits());
+    assertEquals(freshFitness, reusedFitness);
+  }
+
+  @Test
+  void reusedAgentHasSameFitnessOfFreshOne() {
+    checkReusedAgentHasSameFitnessOfFreshOne("ds.num.mlp()");
+  }
+
+  @Test
+  void reusedAgentWithRecurrentBrainHasSameFitnessOfFreshOne() {
+    // the state of the recurrent network after the simulation of g2 has to be reset before the one of g1
+    checkReusedAgentHasSameFitnessOfFreshOne("ds.num.drn()");
+  }
+}
@@ -0,0 +1,94 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.robotevo2d.main.Replayer;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrajectorySnapshotTest {
+
+  @TempDir
+  Path dir;
+
+  private static TrajectoryStep step(double t) {
+    return new TrajectoryStep(
+        t,
+        List.of(
+            new TrajectoryStep.Body("Ground", new double[] {-10, 10, 10}, new double[] {0, 0, -1}, false),
+            new TrajectoryStep.Body("Voxel", new double[] {t, t + 1, t + 1}, new double[] {0, 0, 1}, true)),
+        List.of());
+  }
+
+  @Test
+  void bodiesArePolygonsOfTheStep() {
+    TrajectorySnapshot snapshot = TrajectorySnapshot.from(step(2));
+    assertEquals(2, snapshot.t());
+    assertEquals(2, snapshot.bodies().size());
+    TrajectorySnapshot.PolyBody voxel = (TrajectorySnapshot.PolyBody) snapshot.bodies().get(1);
+    assertEquals("Voxel", voxel.kind());
+    assertTrue(voxel.movable());
+    assertEquals(new Point(3, 0), voxel.poly().vertexes()[1]);
+    assertFalse(((TrajectorySnapshot.PolyBody) snapshot.bodies().get(0)).movable());
+  }
+
+  @Test
+  void drawerFollowsMovableBodies() {
+    TrajectoryDrawer drawer = new TrajectoryDrawer("", 4);
+    BufferedImage before = new BufferedImage(100, 100, BufferedImage.TYPE_3BYTE_BGR);
+    BufferedImage after = new BufferedImage(100, 100, BufferedImage.TYPE_3BYTE_BGR);
+    Graphics2D g = before.createGraphics();
+    assertTrue(drawer.draw(List.of(TrajectorySnapshot.from(step(0))), g));
+    g.dispose();
+    g = after.createGraphics();
+    assertTrue(drawer.draw(List.of(TrajectorySnapshot.from(step(5))), g));
+    g.dispose();
+    // the view is centered on the voxel, hence the voxel is drawn at the same position
+    assertEquals(before.getRGB(50, 45), after.getRGB(50, 45));
+    assertNotEquals(before.getRGB(50, 45), before.getRGB(50, 10));
+  }
+
+  @Test
+  void replayIsLimitedToTheTimeWindow() throws IOException {
+    Path filePath = dir.resolve("replay.trj");
+    TrajectoryWriter writer = new TrajectoryWriter(filePath);
+    for (int i = 0; i < 10; i = i + 1) {
+      writer.write(TrajectorySnapshot.from(step(i)));
+    }
+    writer.close();
+    List<Snapshot> snapshots = new ArrayList<>();
+    Replayer.replay(new TrajectoryReader(filePath), snapshots::add, 2, 5);
+    assertEquals(List.of(2d, 3d, 4d, 5d), snapshots.stream().map(Snapshot::t).toList());
+  }
+}
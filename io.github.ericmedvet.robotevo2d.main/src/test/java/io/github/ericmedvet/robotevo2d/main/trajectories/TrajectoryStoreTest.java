@@ -0,0 +1,57 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TrajectoryStoreTest {
+
+  @Test
+  void keepsTheBestOnes() {
+    TrajectoryStore store = TrajectoryStore.create("test-best", 2);
+    assertTrue(store.offer("a", 1, new byte[] {1}));
+    assertTrue(store.offer("b", 3, new byte[] {3}));
+    assertTrue(store.offer("c", 2, new byte[] {2}));
+    assertFalse(store.offer("d", 0, new byte[] {0}));
+    assertEquals(2, store.size());
+    assertFalse(store.get("a").isPresent());
+    assertArrayEquals(new byte[] {3}, store.get("b").orElseThrow());
+  }
+
+  @Test
+  void storesWithTheSameNameAreIndependent() {
+    TrajectoryStore store1 = TrajectoryStore.create("test-shared", 1);
+    TrajectoryStore store2 = TrajectoryStore.create("test-shared", 5);
+    store1.offer("a", 1, new byte[] {1});
+    assertEquals(0, store2.size());
+    store2.offer("b", 1, new byte[] {2});
+    store2.offer("c", 2, new byte[] {3});
+    assertEquals(2, store2.size());
+    assertArrayEquals(new byte[] {1}, TrajectoryStore.find("test-shared", "a").orElseThrow());
+    assertArrayEquals(new byte[] {3}, TrajectoryStore.find("test-shared", "c").orElseThrow());
+    assertFalse(TrajectoryStore.find("test-other", "a").isPresent());
+  }
+}
@@ -0,0 +1,143 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.trajectories;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.Agent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TrajectoryWriterTest {
+
+  private static final Poly GROUND = new Poly(new Point(-10, 0), new Point(10, 0), new Point(10, -1), new Point(-10, -1));
+
+  @TempDir
+  Path dir;
+
+  private record TestBody(Poly poly) implements Body {
+    @Override
+    public double angle() {
+      return 0;
+    }
+
+    @Override
+    public Point centerLinearVelocity() {
+      return new Point(0, 0);
+    }
+
+    @Override
+    public double mass() {
+      return 1;
+    }
+  }
+
+  private record TestSnapshot(
+      double t, List<Body> bodies, List<Agent> agents, List<ActionOutcome<?, ?>> actionOutcomes)
+      implements Snapshot {}
+
+  private static Poly box(double x, double y) {
+    return new Poly(new Point(x, y), new Point(x + 1, y), new Point(x + 1, y + 1), new Point(x, y + 1));
+  }
+
+  private static List<Body> bodies(double t, boolean withBall) {
+    List<Body> bodies = new ArrayList<>();
+    bodies.add(new TestBody(GROUND));
+    bodies.add(new TestBody(box(0.1 * t, Math.sin(t))));
+    if (withBall) {
+      bodies.add(new TestBody(new Poly(new Point(3, 3), new Point(4, 3), new Point(3.5, 4))));
+    }
+    return bodies;
+  }
+
+  private static List<TrajectoryStep> roundTrip(Path filePath, int nOfSteps, int layoutChangeStep)
+      throws IOException {
+    TrajectoryWriter writer = new TrajectoryWriter(filePath);
+    for (int i = 0; i < nOfSteps; i = i + 1) {
+      double t = i / 60d;
+      writer.write(new TestSnapshot(t, bodies(t, i >= layoutChangeStep), List.of(), List.of()));
+    }
+    writer.close();
+    assertEquals(nOfSteps, writer.nOfSteps());
+    TrajectoryReader reader = new TrajectoryReader(filePath);
+    List<TrajectoryStep> steps = new ArrayList<>();
+    while (reader.hasNext()) {
+      steps.add(reader.next());
+    }
+    return steps;
+  }
+
+  private static void assertStep(double t, List<Body> bodies, TrajectoryStep step) {
+    assertEquals(t, step.t());
+    assertEquals(bodies.size(), step.bodies().size());
+    for (int i = 0; i < bodies.size(); i = i + 1) {
+      Point[] vertexes = bodies.get(i).poly().vertexes();
+      double[] xs = new double[vertexes.length];
+      double[] ys = new double[vertexes.length];
+      for (int j = 0; j < vertexes.length; j = j + 1) {
+        xs[j] = (float) vertexes[j].x();
+        ys[j] = (float) vertexes[j].y();
+      }
+      assertArrayEquals(xs, step.bodies().get(i).xs());
+      assertArrayEquals(ys, step.bodies().get(i).ys());
+      assertEquals("TestBody", step.bodies().get(i).kind());
+    }
+  }
+
+  @Test
+  void stepsAreReadBackAsFloats() throws IOException {
+    List<TrajectoryStep> steps = roundTrip(dir.resolve("steps.trj"), 100, Integer.MAX_VALUE);
+    assertEquals(100, steps.size());
+    for (int i = 0; i < steps.size(); i = i + 1) {
+      double t = i / 60d;
+      assertStep(t, bodies(t, false), steps.get(i));
+      assertTrue(steps.get(i).actions().isEmpty());
+    }
+    assertFalse(steps.get(99).bodies().get(0).movable());
+    assertTrue(steps.get(99).bodies().get(1).movable());
+  }
+
+  @Test
+  void layoutChangesAreReadBack() throws IOException {
+    List<TrajectoryStep> steps = roundTrip(dir.resolve("layout.trj"), 100, 50);
+    assertEquals(100, steps.size());
+    for (int i = 0; i < steps.size(); i = i + 1) {
+      double t = i / 60d;
+      assertStep(t, bodies(t, i >= 50), steps.get(i));
+    }
+    // after a layout change, movements are detected again from scratch
+    assertFalse(steps.get(50).bodies().get(1).movable());
+    assertTrue(steps.get(51).bodies().get(1).movable());
+    assertFalse(steps.get(99).bodies().get(2).movable());
+  }
+}
@@ -0,0 +1,45 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ActionValuesTest {
+
+  private record Actuation(Object target, double value, float gain, int index, String name) {}
+
+  @Test
+  void readsNumericComponentsInOrder() {
+    ActionValues actionValues = ActionValues.of(Actuation.class);
+    Actuation actuation = new Actuation(new Object(), 0.25, 0.5f, 3, "a");
+    assertEquals(3, actionValues.size());
+    assertEquals(0.25, actionValues.value(actuation, 0));
+    assertEquals(0.5, actionValues.value(actuation, 1));
+    assertEquals(3, actionValues.value(actuation, 2));
+  }
+
+  @Test
+  void nonRecordsHaveNoValues() {
+    assertEquals(0, ActionValues.of(String.class).size());
+  }
+}
@@ -0,0 +1,77 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class LruCacheTest {
+
+  @Test
+  void computesOnlyOnMisses() {
+    LruCache<List<Integer>, String> cache = new LruCache<>("test-compute", 10);
+    AtomicInteger counter = new AtomicInteger();
+    cache.computeIfAbsent(List.of(1, 2), k -> "v" + counter.incrementAndGet());
+    String value = cache.computeIfAbsent(List.of(1, 2), k -> "v" + counter.incrementAndGet());
+    assertEquals("v1", value);
+    assertEquals(1, counter.get());
+    assertEquals(new LruCache.Stats(1, 1), cache.stats());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsed() {
+    LruCache<Integer, Integer> cache = new LruCache<>("test-evict", 2);
+    cache.put(1, 10);
+    cache.put(2, 20);
+    cache.get(1);
+    cache.put(3, 30);
+    assertTrue(cache.get(1).isPresent());
+    assertFalse(cache.get(2).isPresent());
+    assertTrue(cache.get(3).isPresent());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void keyedSuppliersWithEqualKeysHit() {
+    LruCache<Object, String> cache = new LruCache<>("test-keyed", 10);
+    KeyedSupplier<String> s1 = new KeyedSupplier<>(List.of(0.5, 1d), () -> "a");
+    KeyedSupplier<String> s2 = new KeyedSupplier<>(List.of(0.5, 1d), () -> "b");
+    KeyedSupplier<String> s3 = new KeyedSupplier<>(List.of(0.5, 2d), () -> "c");
+    cache.put(s1.key(), s1.get());
+    assertEquals("a", cache.get(s2.key()).orElseThrow());
+    assertFalse(cache.get(s3.key()).isPresent());
+  }
+
+  @Test
+  void zeroCapacityDisablesCaching() {
+    LruCache<Integer, Integer> cache = new LruCache<>("test-zero", 0);
+    AtomicInteger counter = new AtomicInteger();
+    cache.computeIfAbsent(1, k -> counter.incrementAndGet());
+    cache.computeIfAbsent(1, k -> counter.incrementAndGet());
+    assertEquals(2, counter.get());
+    assertEquals(0, cache.size());
+  }
+}
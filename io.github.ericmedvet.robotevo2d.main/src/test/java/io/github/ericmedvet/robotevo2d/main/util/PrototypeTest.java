@@ -0,0 +1,56 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+
+class PrototypeTest {
+
+  private record Brain(double[] params) implements Serializable {}
+
+  private record Agent(List<Brain> brains) implements Serializable {}
+
+  @Test
+  void copiesAreDeep() {
+    Agent agent = new Agent(List.of(new Brain(new double[] {1, 2}), new Brain(new double[] {3})));
+    Prototype<Agent> prototype = Prototype.of(agent).orElseThrow();
+    Agent first = prototype.get();
+    Agent second = prototype.get();
+    assertNotSame(first.brains().get(0).params(), second.brains().get(0).params());
+    first.brains().get(0).params()[0] = 10;
+    assertArrayEquals(new double[] {1, 2}, second.brains().get(0).params());
+    assertArrayEquals(new double[] {1, 2}, agent.brains().get(0).params());
+  }
+
+  @Test
+  void nonSerializableObjectsHaveNoPrototype() {
+    Supplier<String> supplier = () -> "a";
+    assertTrue(Prototype.of(supplier).isEmpty());
+    assertTrue(Prototype.of(new Object()).isEmpty());
+  }
+}
@@ -0,0 +1,51 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+
+package io.github.ericmedvet.robotevo2d.main.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+
+class VideoWriterTest {
+
+  @Test
+  void mjpegFilePathsGetTheAviExtension() {
+    assertEquals(
+        Path.of("videos", "run.avi"), VideoWriter.filePath(VideoWriter.Encoder.MJPEG, Path.of("videos", "run.mp4")));
+    assertEquals(Path.of("run.avi"), VideoWriter.filePath(VideoWriter.Encoder.MJPEG, Path.of("run")));
+    assertEquals(Path.of("run.AVI"), VideoWriter.filePath(VideoWriter.Encoder.MJPEG, Path.of("run.AVI")));
+  }
+
+  @Test
+  void pngFilePathsLoseTheExtension() {
+    assertEquals(
+        Path.of("videos", "best"), VideoWriter.filePath(VideoWriter.Encoder.PNG, Path.of("videos", "best.mp4")));
+    assertEquals(Path.of(".frames"), VideoWriter.filePath(VideoWriter.Encoder.PNG, Path.of(".frames")));
+  }
+
+  @Test
+  void otherFilePathsAreKept() {
+    assertEquals(Path.of("run.mp4"), VideoWriter.filePath(VideoWriter.Encoder.FFMPEG, Path.of("run.mp4")));
+    assertEquals(Path.of("frames"), VideoWriter.filePath(VideoWriter.Encoder.PNG, Path.of("frames")));
+  }
+}
@@ -0,0 +1,92 @@
+/*-
+ * ========================LICENSE_START=================================
+ * robotevo2d-main
+ * %%
+ * Copyright (C) 2018 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.robotevo2d.main.dynamicalsystems;
+
+import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// compiled only with the vector profile and loaded by name only if jdk.incubator.vector is available, see
+// SharedWeightsMLP
+final class VectorMlpKernel implements MlpKernel {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+  private static final MlpKernel SCALAR = new MlpKernel.Scalar();
+
+  @Override
+  public void affine(double[] params, int offset, double[] in, double[] out, int nOfOutputs) {
+    int upperBound = SPECIES.loopBound(in.length);
+    int c = offset;
+    for (int j = 0; j < nOfOutputs; j = j + 1) {
+      int w = c + 1;
+      DoubleVector sum = DoubleVector.zero(SPECIES);
+      int k = 0;
+      for (; k < upperBound; k = k + SPECIES.length()) {
+        sum = DoubleVector.fromArray(SPECIES, params, w + k)
+            .fma(DoubleVector.fromArray(SPECIES, in, k), sum);
+      }
+      double v = params[c] + sum.reduceLanes(VectorOperators.ADD);
+      for (; k < in.length; k = k + 1) {
+        v = v + params[w + k] * in[k];
+      }
+      out[j] = v;
+      c = w + in.length;
+    }
+  }
+
+  @Override
+  public void activate(MultiLayerPerceptron.ActivationFunction activationFunction, double[] values) {
+    switch (activationFunction) {
+      case IDENTITY -> {}
+      case TANH -> lanewise(values, VectorOperators.TANH);
+      case RELU -> {
+        int upperBound = SPECIES.loopBound(values.length);
+        int i = 0;
+        for (; i < upperBound; i = i + SPECIES.length()) {
+          DoubleVector.fromArray(SPECIES, values, i).max(0d).intoArray(values, i);
+        }
+        for (; i < values.length; i = i + 1) {
+          values[i] = Math.max(0d, values[i]);
+        }
+      }
+      default -> SCALAR.activate(activationFunction, values);
+    }
+  }
+
+  private static void lanewise(double[] values, VectorOperators.Unary operator) {
+    int upperBound = SPECIES.loopBound(values.length);
+    int i = 0;
+    for (; i < upperBound; i = i + SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, values, i).lanewise(operator).intoArray(values, i);
+    }
+    if (i < values.length) {
+      DoubleVector.fromArray(SPECIES, values, i, SPECIES.indexInRange(i, values.length))
+          .lanewise(operator)
+          .intoArray(values, i, SPECIES.indexInRange(i, values.length));
+    }
+  }
+
+  @Override
+  public String name() {
+    return "vector[%d bits]".formatted(SPECIES.vectorBitSize());
+  }
+}